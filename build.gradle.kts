@@ -1,7 +1,10 @@
 plugins {
 	java
+	`java-test-fixtures`
 	id("org.springframework.boot") version "3.5.7"
+	id("org.springframework.boot.aot") version "3.5.7"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.kzkv.visisis"
@@ -24,16 +27,66 @@ repositories {
 	mavenCentral()
 }
 
+val loadtest by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter")
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-thymeleaf")
+	implementation("org.springframework.boot:spring-boot-starter-cache")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	compileOnly("org.projectlombok:lombok")
 	annotationProcessor("org.projectlombok:lombok")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+	jmhImplementation(testFixtures(project))
+	"loadtestImplementation"(testFixtures(project))
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+tasks.register<JavaExec>("loadTest") {
+	group = "verification"
+	description = "Runs the dashboard against a stub Jira under concurrent load; pass options with -PloadTestArgs."
+	classpath = loadtest.runtimeClasspath
+	mainClass = "com.kzkv.visisis.lab4.loadtest.LoadTest"
+	jvmArgs("-Xmx1024M", "-XX:MaxMetaspaceSize=1024M")
+	findProperty("loadTestArgs")?.let { args(it.toString().split(' ').filter(String::isNotBlank)) }
+}
+
+tasks.register<JavaExec>("startupTest") {
+	group = "verification"
+	description = "Compares startup and time to first dashboard of the plain jar and the AOT + AppCDS mode."
+	dependsOn(tasks.bootJar)
+	classpath = loadtest.runtimeClasspath
+	mainClass = "com.kzkv.visisis.lab4.loadtest.StartupProbe"
+	args("--jar=" + tasks.bootJar.get().archiveFile.get().asFile.path)
+	findProperty("startupTestArgs")?.let { args(it.toString().split(' ').filter(String::isNotBlank)) }
+}
+
+jmh {
+	jmhVersion = "1.37"
+	benchmarkMode = listOf("thrpt")
+	timeUnit = "s"
+	warmupIterations = 3
+	iterations = 5
+	fork = 1
+	profilers = listOf("gc")
+	resultFormat = "JSON"
+	jvmArgs = listOf("-Xmx4g")
+	findProperty("jmhInclude")?.let { includes = listOf(it.toString()) }
+	findProperty("jmhParams")?.toString()?.split(';')?.forEach { param ->
+		val (name, values) = param.split('=', limit = 2)
+		benchmarkParameters.put(name, objects.listProperty<String>().value(values.split(',')))
+	}
+}
@@ -0,0 +1,52 @@
+package com.kzkv.visisis.lab4.bench;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator;
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator.IssueSpec;
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChangelogBenchmark {
+
+	@Param({"1000", "100000"})
+	public int issues;
+
+	@Param({"1", "5", "20", "50"})
+	public int changelogDepth;
+
+	private List<IssueSpec> specs;
+
+	@Setup
+	public void setUp() {
+		JiraPayloadGenerator generator = new JiraPayloadGenerator();
+		specs = new ArrayList<>(issues);
+		for (int i = 0; i < issues; i++) {
+			specs.add(generator.spec(i, changelogDepth));
+		}
+	}
+
+	@Benchmark
+	public void statusDurations(Blackhole blackhole) {
+		for (IssueSpec spec : specs) {
+			List<StatusDuration> durations = Issue.statusDurations(spec.created(), spec.resolved(), spec.status(), spec.changes());
+			blackhole.consume(durations);
+		}
+	}
+
+	@Benchmark
+	public void timeline(Blackhole blackhole) {
+		for (IssueSpec spec : specs) {
+			StatusTimeline timeline = StatusTimeline.of(spec.created(), spec.resolved(), spec.status(), spec.changes());
+			blackhole.consume(timeline.secondsIn("In Progress"));
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.kzkv.visisis.lab4.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.JiraSearchPage;
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator;
+import com.kzkv.visisis.lab4.service.JiraSearchDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DecodeBenchmark {
+
+	@Param({"1000", "10000"})
+	public int issues;
+
+	@Param({"5", "20"})
+	public int changelogDepth;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final JiraSearchDecoder decoder = new JiraSearchDecoder(objectMapper);
+
+	private byte[] payload;
+
+	@Setup
+	public void setUp() {
+		payload = new JiraPayloadGenerator().searchResponse(0, issues, issues, changelogDepth);
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public List<Issue> mapTree() throws IOException {
+		Map<String, Object> body = objectMapper.readValue(payload, Map.class);
+		return ((List<Map<String, Object>>) body.get("issues")).stream()
+				.map(Issue::new)
+				.toList();
+	}
+
+	@Benchmark
+	public JiraSearchPage streaming() throws IOException {
+		return decoder.decode(new ByteArrayInputStream(payload), 0);
+	}
+}
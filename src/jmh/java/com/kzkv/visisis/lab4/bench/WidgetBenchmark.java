@@ -0,0 +1,86 @@
+package com.kzkv.visisis.lab4.bench;
+
+import com.kzkv.visisis.lab4.columnar.IssueTable;
+import com.kzkv.visisis.lab4.dto.BinCount;
+import com.kzkv.visisis.lab4.dto.DailyStats;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.Percentiles;
+import com.kzkv.visisis.lab4.dto.UserCount;
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator;
+import com.kzkv.visisis.lab4.service.DashboardServiceImpl;
+import com.kzkv.visisis.lab4.service.DashboardSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WidgetBenchmark {
+
+	private static final String PROJECT = "KAFKA";
+
+	@Param({"1000", "100000", "1000000"})
+	public int issues;
+
+	@Param({"5"})
+	public int changelogDepth;
+
+	@Param({"false", "true"})
+	public boolean columnar;
+
+	@Param({"exact", "sketch"})
+	public String aggregation;
+
+	private DashboardServiceImpl dashboardService;
+
+	@Setup
+	public void setUp() {
+		List<Issue> generated = new JiraPayloadGenerator(PROJECT, 42, 500).issues(issues, changelogDepth);
+		List<Issue> data = columnar ? IssueTable.of(generated) : List.copyOf(generated);
+		dashboardService = new DashboardServiceImpl((jql, maxResults) -> data);
+		dashboardService.setAggregation(aggregation);
+	}
+
+	@Benchmark
+	public List<BinCount> timeToClose() {
+		return dashboardService.getIssuesByOpenedTime(PROJECT, issues);
+	}
+
+	@Benchmark
+	public Map<String, List<BinCount>> statusTime() {
+		return dashboardService.getStatusTimeDistribution(PROJECT, issues);
+	}
+
+	@Benchmark
+	public List<DailyStats> dailyStats() {
+		return dashboardService.getDailyTaskStats(PROJECT, issues);
+	}
+
+	@Benchmark
+	public List<UserCount> topUsers() {
+		return dashboardService.getTopUsers(PROJECT, issues);
+	}
+
+	@Benchmark
+	public List<BinCount> assignedTime() {
+		return dashboardService.getAssignedIssuesTimeDistribution(PROJECT, issues);
+	}
+
+	@Benchmark
+	public List<BinCount> priority() {
+		return dashboardService.getIssuesByPriority(PROJECT, issues);
+	}
+
+	@Benchmark
+	public Map<String, Percentiles> percentiles() {
+		return dashboardService.getPercentiles(PROJECT, issues);
+	}
+
+	@Benchmark
+	public DashboardSnapshot snapshot() {
+		return dashboardService.getSnapshot(PROJECT, issues);
+	}
+}
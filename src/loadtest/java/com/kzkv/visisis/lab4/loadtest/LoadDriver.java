@@ -0,0 +1,90 @@
+package com.kzkv.visisis.lab4.loadtest;
+
+import com.kzkv.visisis.lab4.aggregate.QuantileSketch;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load: each virtual user sends its next request as soon as the previous one completes.
+ * Requests still in flight when the duration ends are not recorded.
+ */
+final class LoadDriver {
+
+	private final HttpClient client;
+	private final List<URI> targets;
+	private final Duration requestTimeout;
+
+	LoadDriver(HttpClient client, List<URI> targets, Duration requestTimeout) {
+		this.client = client;
+		this.targets = List.copyOf(targets);
+		this.requestTimeout = requestTimeout;
+	}
+
+	Result run(int users, Duration duration) throws InterruptedException {
+		long end = System.nanoTime() + duration.toNanos();
+
+		List<Future<Result>> results = new ArrayList<>(users);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < users; i++) {
+				results.add(executor.submit(() -> user(end)));
+			}
+		}
+
+		Result total = new Result(0, 0, new QuantileSketch());
+		for (Future<Result> result : results) {
+			try {
+				total = total.merge(result.get());
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Virtual user failed", e.getCause());
+			}
+		}
+		return total;
+	}
+
+	private Result user(long end) throws InterruptedException {
+		QuantileSketch latencyMicros = new QuantileSketch();
+		long requests = 0;
+		long errors = 0;
+		while (true) {
+			URI target = targets.get(ThreadLocalRandom.current().nextInt(targets.size()));
+			long started = System.nanoTime();
+			if (started >= end) break;
+			boolean ok = send(target);
+			long finished = System.nanoTime();
+			if (finished >= end) break;
+			requests++;
+			if (!ok) errors++;
+			latencyMicros.add((finished - started) / 1_000);
+		}
+		return new Result(requests, errors, latencyMicros);
+	}
+
+	private boolean send(URI target) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(target).timeout(requestTimeout).GET().build();
+		try {
+			HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+			return response.statusCode() == 200;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	record Result(long requests, long errors, QuantileSketch latencyMicros) {
+
+		Result merge(Result other) {
+			return new Result(requests + other.requests, errors + other.errors, latencyMicros.merge(other.latencyMicros));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.kzkv.visisis.lab4.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of one load-test run. Latencies are in milliseconds, heap figures in megabytes.
+ */
+public record LoadReport(
+		int users,
+		double seconds,
+		long requests,
+		long errors,
+		double throughput,
+		double p50,
+		double p95,
+		double p99,
+		double max,
+		double cacheHitRate,
+		long upstreamRequests,
+		double peakHeapMb,
+		double allocationMbPerSecond,
+		long gcPauses,
+		double gcPauseMillis
+) {
+
+	static LoadReport of(int users, double seconds, LoadDriver.Result result,
+						 MetricsProbe.Snapshot before, MetricsProbe.Snapshot after, double peakHeapBytes,
+						 long upstreamRequests) {
+		long hits = after.cacheHits() - before.cacheHits();
+		long misses = after.cacheMisses() - before.cacheMisses();
+		return new LoadReport(
+				users,
+				seconds,
+				result.requests(),
+				result.errors(),
+				result.requests() / seconds,
+				millis(result, 0.50),
+				millis(result, 0.95),
+				millis(result, 0.99),
+				millis(result, 1.0),
+				hits + misses == 0 ? 0 : (double) hits / (hits + misses),
+				upstreamRequests,
+				Math.max(peakHeapBytes, after.heapUsedBytes()) / (1024 * 1024),
+				(after.allocatedBytes() - before.allocatedBytes()) / (1024 * 1024) / seconds,
+				Math.round(after.gcPauses() - before.gcPauses()),
+				(after.gcPauseSeconds() - before.gcPauseSeconds()) * 1000
+		);
+	}
+
+	private static double millis(LoadDriver.Result result, double quantile) {
+		return result.latencyMicros().isEmpty() ? 0 : result.latencyMicros().quantile(quantile) / 1000.0;
+	}
+
+	/**
+	 * Lists the ways this run is worse than {@code baseline} by more than {@code tolerance} (a fraction).
+	 */
+	public List<String> regressionsAgainst(LoadReport baseline, double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		if (throughput < baseline.throughput * (1 - tolerance)) {
+			regressions.add(String.format(Locale.ROOT, "throughput %.1f req/s < baseline %.1f req/s", throughput, baseline.throughput));
+		}
+		if (p99 > baseline.p99 * (1 + tolerance)) {
+			regressions.add(String.format(Locale.ROOT, "p99 %.1f ms > baseline %.1f ms", p99, baseline.p99));
+		}
+		if (errorRate() > baseline.errorRate() + 0.01) {
+			regressions.add(String.format(Locale.ROOT, "error rate %.2f%% > baseline %.2f%%", errorRate() * 100, baseline.errorRate() * 100));
+		}
+		return regressions;
+	}
+
+	public double errorRate() {
+		return requests == 0 ? 0 : (double) errors / requests;
+	}
+
+	public String format() {
+		return String.format(Locale.ROOT, """
+						users            %d
+						duration         %.0f s
+						requests         %d (%d errors, %.2f%%)
+						throughput       %.1f req/s
+						latency p50      %.1f ms
+						latency p95      %.1f ms
+						latency p99      %.1f ms
+						latency max      %.1f ms
+						cache hit rate   %.1f%%
+						jira requests    %d
+						peak heap        %.0f MB
+						allocation rate  %.0f MB/s
+						gc pauses        %d (%.0f ms total)""",
+				users, seconds, requests, errors, errorRate() * 100, throughput, p50, p95, p99, max,
+				cacheHitRate * 100, upstreamRequests, peakHeapMb, allocationMbPerSecond, gcPauses, gcPauseMillis);
+	}
+}
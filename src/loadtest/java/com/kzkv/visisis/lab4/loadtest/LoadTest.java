@@ -0,0 +1,151 @@
+package com.kzkv.visisis.lab4.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kzkv.visisis.lab4.Lab4Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the dashboard page under concurrent load and prints a {@link LoadReport}.
+ *
+ * <p>Without {@code --target} the application is started in this JVM against a {@link StubJiraServer}; heap and GC
+ * figures then include the driver. With {@code --target=http://host:8080} an already running replica is measured
+ * instead. Options containing a dot (e.g. {@code --dashboard.aggregation=sketch}) are passed to the in-process
+ * application. With {@code --baseline=report.json} the run fails when it regresses by more than {@code --tolerance}.
+ */
+public final class LoadTest {
+
+	private static final Map<String, String> DEFAULTS = Map.ofEntries(
+			Map.entry("users", "32"),
+			Map.entry("warmup", "15s"),
+			Map.entry("duration", "60s"),
+			Map.entry("projects", "KAFKA"),
+			Map.entry("max-results", "200"),
+			Map.entry("issues", "2000"),
+			Map.entry("changelog-depth", "5"),
+			Map.entry("latency", "50ms"),
+			Map.entry("latency-jitter", "25ms"),
+			Map.entry("request-timeout", "30s"),
+			Map.entry("report", "build/reports/loadtest/report.json"),
+			Map.entry("tolerance", "0.1")
+	);
+
+	private LoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>(DEFAULTS);
+		Map<String, Object> appProperties = new LinkedHashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--") || !arg.contains("=")) {
+				throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+			}
+			String name = arg.substring(2, arg.indexOf('='));
+			String value = arg.substring(arg.indexOf('=') + 1);
+			if (name.contains(".")) {
+				appProperties.put(name, value);
+			} else if (DEFAULTS.containsKey(name) || name.equals("target") || name.equals("baseline")) {
+				options.put(name, value);
+			} else {
+				throw new IllegalArgumentException("Unknown option: --" + name);
+			}
+		}
+
+		ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+		LoadReport report = options.containsKey("target")
+				? measure(URI.create(options.get("target")), options, objectMapper, null)
+				: measureInProcess(options, appProperties, objectMapper);
+
+		System.out.println(report.format());
+		Path reportFile = Path.of(options.get("report"));
+		if (reportFile.getParent() != null) {
+			Files.createDirectories(reportFile.getParent());
+		}
+		objectMapper.writeValue(reportFile.toFile(), report);
+		System.out.println("report written to " + reportFile.toAbsolutePath());
+
+		if (options.containsKey("baseline")) {
+			LoadReport baseline = objectMapper.readValue(Path.of(options.get("baseline")).toFile(), LoadReport.class);
+			List<String> regressions = report.regressionsAgainst(baseline, Double.parseDouble(options.get("tolerance")));
+			regressions.forEach(regression -> System.out.println("REGRESSION: " + regression));
+			if (!regressions.isEmpty()) {
+				System.exit(1);
+			}
+		}
+	}
+
+	private static LoadReport measureInProcess(Map<String, String> options, Map<String, Object> appProperties,
+											   ObjectMapper objectMapper) throws IOException, InterruptedException {
+		int issues = Integer.parseInt(options.get("issues"));
+		try (StubJiraServer stub = StubJiraServer.start(issues, Integer.parseInt(options.get("changelog-depth")),
+				duration(options, "latency"), duration(options, "latency-jitter"))) {
+			Map<String, Object> properties = new LinkedHashMap<>();
+			properties.put("server.port", "0");
+			properties.put("url.jira", stub.urlTemplate());
+			properties.put("jira.http.version", "HTTP_1_1");
+			properties.put("jira.max-total-issues", String.valueOf(Math.max(issues, 20000)));
+			properties.put("issue-store.enabled", "false");
+			properties.put("cache.l2.enabled", "false");
+			properties.put("cache.warmer.enabled", "false");
+			properties.putAll(appProperties);
+
+			try (ConfigurableApplicationContext app = new SpringApplicationBuilder(Lab4Application.class)
+					.properties(properties)
+					.run()) {
+				int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+				return measure(URI.create("http://127.0.0.1:" + port), options, objectMapper, stub);
+			}
+		}
+	}
+
+	private static LoadReport measure(URI baseUri, Map<String, String> options, ObjectMapper objectMapper,
+									  StubJiraServer stub) throws InterruptedException {
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+
+		List<URI> targets = new ArrayList<>();
+		for (String project : options.get("projects").split(",")) {
+			targets.add(baseUri.resolve("/?projectKey=" + project.trim()
+					+ "&maxResults=" + options.get("max-results") + "&stream=false"));
+		}
+
+		int users = Integer.parseInt(options.get("users"));
+		Duration warmup = duration(options, "warmup");
+		Duration duration = duration(options, "duration");
+		LoadDriver driver = new LoadDriver(client, targets, duration(options, "request-timeout"));
+
+		try (MetricsProbe probe = new MetricsProbe(client, objectMapper, baseUri)) {
+			driver.run(users, warmup);
+			MetricsProbe.Snapshot before = probe.snapshot();
+			long upstreamBefore = stub == null ? 0 : stub.requests();
+			probe.startSampling(Duration.ofSeconds(1));
+
+			LoadDriver.Result result = driver.run(users, duration);
+
+			MetricsProbe.Snapshot after = probe.snapshot();
+			long upstream = stub == null ? 0 : stub.requests() - upstreamBefore;
+			return LoadReport.of(users, duration.toMillis() / 1000.0, result, before, after, probe.peakHeap(), upstream);
+		}
+	}
+
+	private static Duration duration(Map<String, String> options, String name) {
+		return DurationStyle.detectAndParse(options.get(name));
+	}
+}
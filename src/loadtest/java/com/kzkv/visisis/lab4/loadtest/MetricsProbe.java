@@ -0,0 +1,96 @@
+package com.kzkv.visisis.lab4.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Reads counters from the target's actuator and cache endpoints, so the same numbers are available whether
+ * the application runs in-process or as a separate replica.
+ */
+final class MetricsProbe implements AutoCloseable {
+
+	private final HttpClient client;
+	private final ObjectMapper objectMapper;
+	private final URI baseUri;
+	private final DoubleAccumulator peakHeap = new DoubleAccumulator(Math::max, 0);
+	private ScheduledExecutorService sampler;
+
+	MetricsProbe(HttpClient client, ObjectMapper objectMapper, URI baseUri) {
+		this.client = client;
+		this.objectMapper = objectMapper;
+		this.baseUri = baseUri;
+	}
+
+	Snapshot snapshot() {
+		JsonNode cache = get("/api/cache/issues/stats");
+		return new Snapshot(
+				cache == null ? 0 : cache.path("hitCount").asLong(),
+				cache == null ? 0 : cache.path("missCount").asLong(),
+				metric("jvm.gc.pause", "COUNT"),
+				metric("jvm.gc.pause", "TOTAL_TIME"),
+				metric("jvm.gc.memory.allocated", "COUNT"),
+				metric("jvm.memory.used", "VALUE", "area:heap")
+		);
+	}
+
+	void startSampling(Duration interval) {
+		sampler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory());
+		sampler.scheduleAtFixedRate(() -> peakHeap.accumulate(metric("jvm.memory.used", "VALUE", "area:heap")),
+				0, interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	double peakHeap() {
+		return peakHeap.get();
+	}
+
+	@Override
+	public void close() {
+		if (sampler != null) {
+			sampler.shutdownNow();
+		}
+	}
+
+	private double metric(String name, String statistic, String... tags) {
+		StringBuilder path = new StringBuilder("/actuator/metrics/").append(name);
+		for (int i = 0; i < tags.length; i++) {
+			path.append(i == 0 ? '?' : '&').append("tag=").append(URLEncoder.encode(tags[i], StandardCharsets.UTF_8));
+		}
+		JsonNode body = get(path.toString());
+		if (body == null) return 0;
+		for (JsonNode measurement : body.path("measurements")) {
+			if (statistic.equals(measurement.path("statistic").asText())) {
+				return measurement.path("value").asDouble();
+			}
+		}
+		return 0;
+	}
+
+	private JsonNode get(String path) {
+		HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(5)).GET().build();
+		try {
+			HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+			return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+		} catch (IOException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	record Snapshot(long cacheHits, long cacheMisses, double gcPauses, double gcPauseSeconds,
+					double allocatedBytes, double heapUsedBytes) {}
+}
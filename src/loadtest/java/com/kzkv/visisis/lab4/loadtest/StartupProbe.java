@@ -0,0 +1,193 @@
+package com.kzkv.visisis.lab4.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Starts the boot jar repeatedly as a separate process, once plainly and once with Spring AOT and an AppCDS archive
+ * from a training run, and reports the median time from launch to readiness and to the first rendered dashboard.
+ * Jira is replaced by a {@link StubJiraServer} so the numbers do not depend on the network.
+ */
+public final class StartupProbe {
+
+	private static final List<String> HEAP = List.of("-Xmx1024M", "-XX:MaxMetaspaceSize=1024M");
+
+	private static final Map<String, String> DEFAULTS = Map.of(
+			"runs", "3",
+			"work-dir", "build/startup",
+			"project", "KAFKA",
+			"max-results", "200",
+			"timeout", "120s",
+			"report", "build/reports/startup/report.json"
+	);
+
+	private final StubJiraServer stub;
+	private final Path workDir;
+	private final String project;
+	private final int maxResults;
+	private final Duration timeout;
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+	private StartupProbe(StubJiraServer stub, Path workDir, String project, int maxResults, Duration timeout) {
+		this.stub = stub;
+		this.workDir = workDir;
+		this.project = project;
+		this.maxResults = maxResults;
+		this.timeout = timeout;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>(DEFAULTS);
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (!arg.startsWith("--") || eq < 0) {
+				throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+			}
+			options.put(arg.substring(2, eq), arg.substring(eq + 1));
+		}
+		Path jar = Path.of(options.get("jar")).toAbsolutePath();
+		Path workDir = Path.of(options.get("work-dir")).toAbsolutePath();
+		int runs = Integer.parseInt(options.get("runs"));
+		Duration timeout = DurationStyle.detectAndParse(options.get("timeout"));
+
+		try (StubJiraServer stub = StubJiraServer.start(2000, 5, Duration.ofMillis(50), Duration.ZERO)) {
+			StartupProbe probe = new StartupProbe(stub, workDir, options.get("project"),
+					Integer.parseInt(options.get("max-results")), timeout);
+
+			Path extracted = workDir.resolve("extracted");
+			probe.exec(workDir, "extract", List.of("-Djarmode=tools", "-jar", jar.toString(),
+					"extract", "--destination", extracted.toString(), "--force"));
+			String extractedJar = jar.getFileName().toString();
+			List<String> training = new ArrayList<>(HEAP);
+			training.addAll(List.of("-XX:ArchiveClassesAtExit=application.jsa", "-Dspring.aot.enabled=true",
+					"-Dspring.context.exit=onRefresh"));
+			training.addAll(probe.appProperties(freePort()));
+			training.addAll(List.of("-jar", extractedJar));
+			probe.exec(extracted, "training", training);
+
+			Map<String, Timings> results = new LinkedHashMap<>();
+			List<String> standard = new ArrayList<>(HEAP);
+			List<String> fast = new ArrayList<>(HEAP);
+			fast.addAll(List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true"));
+			results.put("standard", probe.measure("standard", workDir, standard, jar.toString(), runs));
+			results.put("aot-cds", probe.measure("aot-cds", extracted, fast, extractedJar, runs));
+
+			results.forEach((mode, timings) -> System.out.printf(Locale.ROOT,
+					"%-9s ready %6d ms   first dashboard %6d ms%n", mode, timings.readyMillis(), timings.firstDashboardMillis()));
+			Path report = Path.of(options.get("report"));
+			if (report.getParent() != null) {
+				Files.createDirectories(report.getParent());
+			}
+			new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), results);
+			System.out.println("report written to " + report.toAbsolutePath());
+		}
+	}
+
+	private Timings measure(String mode, Path directory, List<String> jvmArgs, String jar, int runs)
+			throws IOException, InterruptedException {
+		long[] ready = new long[runs];
+		long[] firstDashboard = new long[runs];
+		for (int run = 0; run < runs; run++) {
+			int port = freePort();
+			List<String> command = new ArrayList<>(jvmArgs);
+			command.addAll(appProperties(port));
+			command.addAll(List.of("-jar", jar));
+
+			long started = System.nanoTime();
+			Process process = start(directory, mode + "-" + run, command);
+			try {
+				URI base = URI.create("http://127.0.0.1:" + port);
+				awaitStatus(base.resolve("/actuator/health/readiness"), started, process);
+				ready[run] = (System.nanoTime() - started) / 1_000_000;
+				awaitStatus(base.resolve("/?projectKey=" + project + "&maxResults=" + maxResults + "&stream=false"), started, process);
+				firstDashboard[run] = (System.nanoTime() - started) / 1_000_000;
+			} finally {
+				process.destroy();
+				process.waitFor();
+			}
+		}
+		return new Timings(median(ready), median(firstDashboard));
+	}
+
+	private List<String> appProperties(int port) {
+		return List.of(
+				"-Dserver.port=" + port,
+				"-Durl.jira=" + stub.urlTemplate(),
+				"-Djira.http.version=HTTP_1_1",
+				"-Dissue-store.enabled=false",
+				"-Dcache.l2.enabled=false",
+				"-Dcache.warmer.enabled=false"
+		);
+	}
+
+	private void awaitStatus(URI uri, long started, Process process) throws IOException, InterruptedException {
+		long deadline = started + timeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!process.isAlive()) {
+				throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + workDir);
+			}
+			try {
+				HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+				if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+					return;
+				}
+			} catch (IOException e) {
+				// not listening yet
+			}
+			Thread.sleep(10);
+		}
+		throw new IllegalStateException("No 200 from " + uri + " within " + timeout);
+	}
+
+	private void exec(Path directory, String name, List<String> jvmArgs) throws IOException, InterruptedException {
+		Process process = start(directory, name, jvmArgs);
+		int exit = process.waitFor();
+		if (exit != 0) {
+			throw new IllegalStateException(name + " exited with " + exit + ", see " + workDir.resolve(name + ".log"));
+		}
+	}
+
+	private Process start(Path directory, String name, List<String> jvmArgs) throws IOException {
+		Files.createDirectories(directory);
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(jvmArgs);
+		return new ProcessBuilder(command)
+				.directory(directory.toFile())
+				.redirectErrorStream(true)
+				.redirectOutput(workDir.resolve(name + ".log").toFile())
+				.start();
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	public record Timings(long readyMillis, long firstDashboardMillis) {}
+}
@@ -0,0 +1,162 @@
+package com.kzkv.visisis.lab4.loadtest;
+
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator;
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator.IssueSpec;
+import com.kzkv.visisis.lab4.service.Jql;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stand-in for the Jira {@code search} endpoint. Every project gets the same number of synthetic issues,
+ * generated once from the project key; pages are served with a configurable delay.
+ */
+public final class StubJiraServer implements AutoCloseable {
+
+	private static final String SEARCH_PATH = "/rest/api/2/search";
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final int issues;
+	private final int changelogDepth;
+	private final Duration latency;
+	private final Duration jitter;
+	private final Map<String, ProjectData> projects = new ConcurrentHashMap<>();
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder bytesSent = new LongAdder();
+
+	private StubJiraServer(int issues, int changelogDepth, Duration latency, Duration jitter) throws IOException {
+		this.issues = issues;
+		this.changelogDepth = changelogDepth;
+		this.latency = latency;
+		this.jitter = jitter;
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+		this.executor = Executors.newVirtualThreadPerTaskExecutor();
+		server.setExecutor(executor);
+		server.createContext(SEARCH_PATH, this::handle);
+	}
+
+	public static StubJiraServer start(int issues, int changelogDepth, Duration latency, Duration jitter) throws IOException {
+		StubJiraServer stub = new StubJiraServer(issues, changelogDepth, latency, jitter);
+		stub.server.start();
+		return stub;
+	}
+
+	public String urlTemplate() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + SEARCH_PATH
+				+ "?jql=%s&startAt=%s&maxResults=%s&fields=key,created,resolutiondate,status,reporter,assignee,priority&expand=changelog";
+	}
+
+	public long requests() {
+		return requests.sum();
+	}
+
+	public long bytesSent() {
+		return bytesSent.sum();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.close();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			requests.increment();
+			Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+			String jql = query.getOrDefault("jql", "");
+			int startAt = Integer.parseInt(query.getOrDefault("startAt", "0"));
+			int maxResults = Integer.parseInt(query.getOrDefault("maxResults", "50"));
+
+			ProjectData project = projects.computeIfAbsent(Jql.projectKeyOf(jql), this::generate);
+			List<IssueSpec> matching = jql.contains("updated >=") ? List.of()
+					: jql.contains("status = Closed") ? project.closed() : project.all();
+			int from = Math.min(startAt, matching.size());
+			int to = Math.min(from + maxResults, matching.size());
+			byte[] body = JiraPayloadGenerator.searchResponse(matching.subList(from, to), startAt, matching.size());
+
+			delay();
+			String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+			if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+				body = gzip(body);
+				exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			}
+			exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+			bytesSent.add(body.length);
+		} catch (RuntimeException e) {
+			exchange.sendResponseHeaders(500, -1);
+		}
+	}
+
+	private ProjectData generate(String projectKey) {
+		JiraPayloadGenerator generator = new JiraPayloadGenerator(projectKey, projectKey.hashCode(), 500);
+		List<IssueSpec> all = new ArrayList<>(issues);
+		List<IssueSpec> closed = new ArrayList<>();
+		for (int i = 0; i < issues; i++) {
+			IssueSpec spec = generator.spec(i, changelogDepth);
+			all.add(spec);
+			if (spec.resolved() != null) {
+				closed.add(spec);
+			}
+		}
+		return new ProjectData(List.copyOf(all), List.copyOf(closed));
+	}
+
+	private void delay() {
+		long millis = latency.toMillis();
+		if (!jitter.isZero()) {
+			millis += ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+		}
+		if (millis <= 0) return;
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> params = new HashMap<>();
+		if (rawQuery == null) return params;
+		for (String pair : rawQuery.split("&")) {
+			int eq = pair.indexOf('=');
+			if (eq > 0) {
+				params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+			}
+		}
+		return params;
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4);
+		try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+			out.write(body);
+		}
+		return buffer.toByteArray();
+	}
+
+	private record ProjectData(List<IssueSpec> all, List<IssueSpec> closed) {}
+}
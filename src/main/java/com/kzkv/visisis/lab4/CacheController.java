@@ -0,0 +1,53 @@
+package com.kzkv.visisis.lab4;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kzkv.visisis.lab4.dto.CacheStatistics;
+import com.kzkv.visisis.lab4.dto.SingleFlightStatistics;
+import com.kzkv.visisis.lab4.service.IssueLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+	private final CacheManager cacheManager;
+	private final IssueLoader issueLoader;
+
+	@GetMapping("/{name}/stats")
+	public CacheStatistics stats(@PathVariable String name) {
+		if (!(cacheManager.getCache(name) instanceof CaffeineCache caffeineCache)) {
+			throw new ResponseStatusException(NOT_FOUND, "Unknown cache: " + name);
+		}
+		Cache<Object, Object> cache = caffeineCache.getNativeCache();
+		CacheStats stats = cache.stats();
+		long weightedSize = cache.policy().eviction()
+				.map(eviction -> eviction.weightedSize().orElse(cache.estimatedSize()))
+				.orElse(cache.estimatedSize());
+		return new CacheStatistics(
+				stats.hitCount(),
+				stats.missCount(),
+				stats.hitRate(),
+				stats.evictionCount(),
+				stats.evictionWeight(),
+				stats.loadFailureCount(),
+				cache.estimatedSize(),
+				weightedSize
+		);
+	}
+
+	@GetMapping("/issues/single-flight")
+	public SingleFlightStatistics singleFlight() {
+		return issueLoader.singleFlightStatistics();
+	}
+}
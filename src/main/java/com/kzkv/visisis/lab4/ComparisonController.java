@@ -0,0 +1,39 @@
+package com.kzkv.visisis.lab4;
+
+import com.kzkv.visisis.lab4.dto.ComparisonData;
+import com.kzkv.visisis.lab4.service.CacheWarmer;
+import com.kzkv.visisis.lab4.service.ComparisonService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@RestController
+@RequestMapping("/api/compare")
+@RequiredArgsConstructor
+public class ComparisonController {
+
+	private final ComparisonService comparisonService;
+	private final CacheWarmer cacheWarmer;
+
+	@GetMapping
+	public ComparisonData compare(
+			@RequestParam List<String> projects,
+			@RequestParam(defaultValue = "200") int maxResults) {
+		List<String> projectKeys = List.copyOf(new LinkedHashSet<>(projects.stream().map(String::trim).toList()));
+		try {
+			ComparisonData data = comparisonService.compare(projectKeys, maxResults);
+			projectKeys.forEach(projectKey -> cacheWarmer.recordRequest(projectKey, maxResults));
+			return data;
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(BAD_REQUEST, e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.kzkv.visisis.lab4;
+
+import com.kzkv.visisis.lab4.resilience.CircuitOpenException;
+import com.kzkv.visisis.lab4.resilience.LimitExceededException;
+import com.kzkv.visisis.lab4.service.CacheWarmer;
+import com.kzkv.visisis.lab4.service.DashboardResponseCache;
+import com.kzkv.visisis.lab4.service.DashboardResponseCache.Body;
+import com.kzkv.visisis.lab4.service.DashboardWidget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardApiController {
+
+	private final DashboardResponseCache responseCache;
+	private final CacheWarmer cacheWarmer;
+
+	@GetMapping("/{projectKey}")
+	public ResponseEntity<byte[]> dashboard(
+			@PathVariable String projectKey,
+			@RequestParam(defaultValue = "200") int maxResults,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		cacheWarmer.recordRequest(projectKey, maxResults);
+		return respond(() -> responseCache.dashboard(projectKey, maxResults, from, to), ifNoneMatch, acceptEncoding);
+	}
+
+	@GetMapping("/{projectKey}/{widget}")
+	public ResponseEntity<byte[]> widget(
+			@PathVariable String projectKey,
+			@PathVariable String widget,
+			@RequestParam(defaultValue = "200") int maxResults,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		DashboardWidget dashboardWidget = DashboardWidget.fromPath(widget)
+				.orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Unknown widget: " + widget));
+		cacheWarmer.recordRequest(projectKey, maxResults);
+		return respond(() -> responseCache.widget(projectKey, maxResults, dashboardWidget, from, to), ifNoneMatch, acceptEncoding);
+	}
+
+	private ResponseEntity<byte[]> respond(Supplier<Body> loader, String ifNoneMatch, String acceptEncoding) {
+		Body body;
+		try {
+			body = loader.get();
+		} catch (RuntimeException e) {
+			Throwable cause = unwrap(e);
+			if (cause instanceof IllegalArgumentException) {
+				throw new ResponseStatusException(BAD_REQUEST, cause.getMessage(), e);
+			}
+			if (cause instanceof RestClientException || cause instanceof CircuitOpenException
+					|| cause instanceof LimitExceededException) {
+				throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Jira is unavailable", e);
+			}
+			throw e;
+		}
+
+		if (body.matches(ifNoneMatch)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.eTag(body.etag())
+					.cacheControl(CacheControl.noCache())
+					.build();
+		}
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.eTag(body.etag())
+				.cacheControl(CacheControl.noCache())
+				.contentType(MediaType.APPLICATION_JSON)
+				.varyBy(HttpHeaders.ACCEPT_ENCODING);
+		if (acceptsGzip(acceptEncoding)) {
+			return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+		}
+		return response.body(body.json());
+	}
+
+	/**
+	 * Jira failures raised on another thread can arrive wrapped by the future that carried them.
+	 */
+	private static Throwable unwrap(Throwable error) {
+		Throwable cause = error;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			if (parts[0].trim().equalsIgnoreCase("gzip")) {
+				return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
+	}
+}
@@ -2,18 +2,43 @@ package com.kzkv.visisis.lab4;
 
 import com.kzkv.visisis.lab4.dto.BinCount;
 import com.kzkv.visisis.lab4.dto.DailyStats;
+import com.kzkv.visisis.lab4.dto.DashboardData;
 import com.kzkv.visisis.lab4.dto.UserCount;
+import com.kzkv.visisis.lab4.service.CacheWarmer;
+import com.kzkv.visisis.lab4.service.DashboardLoader;
 import com.kzkv.visisis.lab4.service.DashboardService;
+import com.kzkv.visisis.lab4.service.DashboardSnapshot;
+import com.kzkv.visisis.lab4.service.DashboardWidget;
+import com.kzkv.visisis.lab4.service.Jql;
+import com.kzkv.visisis.lab4.service.ProjectSnapshots;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Slf4j
 @Controller
@@ -22,15 +47,75 @@ import java.util.Map;
 public class DashboardController {
 
 	private final DashboardService dashboardService;
+	private final DashboardLoader dashboardLoader;
+	private final ProjectSnapshots projectSnapshots;
+	private final CacheWarmer cacheWarmer;
+	private final MeterRegistry meterRegistry;
+
+	@Value("${dashboard.concurrent.enabled:true}")
+	private boolean concurrent;
+
+	@Value("${dashboard.streaming.enabled:true}")
+	private boolean streaming;
+
+	@Value("${dashboard.concurrent.page-timeout:20s}")
+	private Duration pageTimeout;
+
+	@ModelAttribute("today")
+	public LocalDate today() {
+		return LocalDate.now();
+	}
 
 	@GetMapping
 	public String dashboard(
 			@RequestParam(defaultValue = "KAFKA") String projectKey,
 			@RequestParam(defaultValue = "200") int maxResults,
+			@RequestParam(required = false) Boolean stream,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
 			Model model) {
 
 		model.addAttribute("projectKey", projectKey);
+		model.addAttribute("maxResults", maxResults);
+		model.addAttribute("from", from);
+		model.addAttribute("to", to);
+		cacheWarmer.recordRequest(projectKey, maxResults);
+
+		if (from != null || to != null) {
+			Timer.Sample sample = Timer.start(meterRegistry);
+			try {
+				render(() -> projectSnapshots.range(projectKey, maxResults, from, to), projectKey, maxResults, model);
+			} finally {
+				sample.stop(pageTimer("range"));
+			}
+			return "dashboard";
+		}
 
+		if (stream != null ? stream : streaming) {
+			Jql.sanitizeProjectKey(projectKey);
+			model.addAttribute("streaming", true);
+			model.addAttribute("unavailable", Set.of());
+			model.addAttribute("staleSince", dashboardService.staleSince(projectKey, maxResults).orElse(null));
+			return "dashboard";
+		}
+
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			if (concurrent) {
+				DashboardData data = dashboardLoader.load(projectKey, maxResults);
+				model.addAllAttributes(data.widgets());
+				model.addAttribute("unavailable", data.unavailable());
+			} else {
+				sequential(projectKey, maxResults, model);
+			}
+			model.addAttribute("staleSince", dashboardService.staleSince(projectKey, maxResults).orElse(null));
+			return "dashboard";
+		} finally {
+			sample.stop(pageTimer(concurrent ? "concurrent" : "sequential"));
+		}
+	}
+
+	private void sequential(String projectKey, int maxResults, Model model) {
 		List<BinCount> issuesByOpenedTime = dashboardService.getIssuesByOpenedTime(projectKey, maxResults);
 		Map<String, List<BinCount>> statusTimeDistribution = dashboardService.getStatusTimeDistribution(projectKey, maxResults);
 		List<DailyStats> dailyTaskStats = dashboardService.getDailyTaskStats(projectKey, maxResults);
@@ -51,8 +136,101 @@ public class DashboardController {
 		model.addAttribute("topUsers", topUsers);
 		model.addAttribute("assignedTimeData", assignedIssuesTimeDistribution);
 		model.addAttribute("priorityData", issuesByPriority);
+		model.addAttribute("percentilesData", dashboardService.getPercentiles(projectKey, maxResults));
+		model.addAttribute("unavailable", Set.of());
+	}
+
+	@GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter events(
+			@RequestParam(defaultValue = "KAFKA") String projectKey,
+			@RequestParam(defaultValue = "200") int maxResults) {
+		try {
+			Jql.sanitizeProjectKey(projectKey);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+		}
+
+		SseEmitter emitter = new SseEmitter(pageTimeout.plusSeconds(5).toMillis());
+		Timer.Sample page = Timer.start(meterRegistry);
+		Timer.Sample firstWidget = Timer.start(meterRegistry);
+		AtomicBoolean first = new AtomicBoolean(true);
+
+		CompletableFuture<Void> widgets = dashboardLoader.stream(projectKey, maxResults,
+				(widget, data) -> {
+					if (first.compareAndSet(true, false)) {
+						firstWidget.stop(Timer.builder("dashboard.first.widget").register(meterRegistry));
+					}
+					send(emitter, SseEmitter.event().name(widget.getAttribute()).data(data, MediaType.APPLICATION_JSON));
+				},
+				widget -> send(emitter, SseEmitter.event().name("unavailable").data(widget.getAttribute())));
+		widgets.whenComplete((ignored, error) -> {
+			page.stop(pageTimer("stream"));
+			if (error != null) {
+				emitter.completeWithError(error);
+				return;
+			}
+			dashboardService.staleSince(projectKey, maxResults).ifPresent(since ->
+					send(emitter, SseEmitter.event().name("stale").data(since.toString())));
+			send(emitter, SseEmitter.event().name("done").data(""));
+			emitter.complete();
+		});
+
+		emitter.onTimeout(() -> widgets.cancel(true));
+		emitter.onError(error -> widgets.cancel(true));
+		return emitter;
+	}
+
+	@GetMapping("/snapshot")
+	public String snapshot(
+			@RequestParam(defaultValue = "KAFKA") String projectKey,
+			@RequestParam(defaultValue = "200") int maxResults,
+			Model model) {
+
+		model.addAttribute("projectKey", projectKey);
+		model.addAttribute("maxResults", maxResults);
+		cacheWarmer.recordRequest(projectKey, maxResults);
+
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			render(() -> dashboardService.getSnapshot(projectKey, maxResults), projectKey, maxResults, model);
+		} finally {
+			sample.stop(pageTimer("snapshot"));
+		}
 
 		return "dashboard";
 	}
 
+	private void render(Supplier<DashboardSnapshot> snapshot, String projectKey, int maxResults, Model model) {
+		try {
+			DashboardData data = snapshot.get().toData();
+			model.addAllAttributes(data.widgets());
+			model.addAttribute("unavailable", data.unavailable());
+		} catch (IllegalArgumentException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			log.error("Snapshot for {} failed", projectKey, e);
+			Set<String> unavailable = new LinkedHashSet<>();
+			for (DashboardWidget widget : DashboardWidget.values()) {
+				model.addAttribute(widget.getAttribute(), widget.getFallback());
+				unavailable.add(widget.getAttribute());
+			}
+			model.addAttribute("unavailable", unavailable);
+		}
+		model.addAttribute("staleSince", dashboardService.staleSince(projectKey, maxResults).orElse(null));
+	}
+
+	private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+		try {
+			emitter.send(event);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private Timer pageTimer(String mode) {
+		return Timer.builder("dashboard.page")
+				.tag("mode", mode)
+				.register(meterRegistry);
+	}
+
 }
@@ -0,0 +1,54 @@
+package com.kzkv.visisis.lab4.aggregate;
+
+public interface Bucketing {
+
+	long bucket(long day);
+
+	String label(long bucket);
+
+	static Bucketing identity() {
+		return fixedWidth(1);
+	}
+
+	static Bucketing fixedWidth(int width) {
+		if (width < 1) {
+			throw new IllegalArgumentException("Bucket width must be positive: " + width);
+		}
+		return new Bucketing() {
+			@Override
+			public long bucket(long day) {
+				return Math.floorDiv(day, width);
+			}
+
+			@Override
+			public String label(long bucket) {
+				long from = bucket * width;
+				return width == 1 ? Long.toString(from) : from + "-" + (from + width - 1);
+			}
+		};
+	}
+
+	static Bucketing log2() {
+		return new Bucketing() {
+			@Override
+			public long bucket(long day) {
+				return day < 0 ? -1 : 64 - Long.numberOfLeadingZeros(day);
+			}
+
+			@Override
+			public String label(long bucket) {
+				if (bucket < 0) return "<0";
+				if (bucket <= 1) return Long.toString(bucket);
+				return (1L << (bucket - 1)) + "-" + ((1L << bucket) - 1);
+			}
+		};
+	}
+
+	static Bucketing parse(String spec) {
+		String value = spec.trim().toLowerCase();
+		if (value.equals("identity")) return identity();
+		if (value.equals("log2")) return log2();
+		if (value.startsWith("fixed:")) return fixedWidth(Integer.parseInt(value.substring("fixed:".length())));
+		throw new IllegalArgumentException("Unknown bucketing: " + spec);
+	}
+}
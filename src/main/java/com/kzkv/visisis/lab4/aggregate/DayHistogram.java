@@ -0,0 +1,116 @@
+package com.kzkv.visisis.lab4.aggregate;
+
+import com.kzkv.visisis.lab4.dto.BinCount;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public final class DayHistogram {
+
+	private static final int MAX_DENSE_DAYS = 1 << 16;
+
+	private int[] dense = new int[64];
+	private TreeMap<Long, int[]> sparse;
+
+	public void add(long day) {
+		add(day, 1);
+	}
+
+	public void add(long day, int delta) {
+		if (day >= 0 && day < MAX_DENSE_DAYS) {
+			if (day >= dense.length) {
+				dense = Arrays.copyOf(dense, (int) Math.min(MAX_DENSE_DAYS, Math.max(day + 1, dense.length * 2L)));
+			}
+			dense[(int) day] += delta;
+			return;
+		}
+		if (sparse == null) {
+			sparse = new TreeMap<>();
+		}
+		sparse.computeIfAbsent(day, d -> new int[1])[0] += delta;
+	}
+
+	public DayHistogram merge(DayHistogram other) {
+		for (int day = 0; day < other.dense.length; day++) {
+			if (other.dense[day] != 0) {
+				add(day, other.dense[day]);
+			}
+		}
+		if (other.sparse != null) {
+			other.sparse.forEach((day, count) -> add(day, count[0]));
+		}
+		return this;
+	}
+
+	public int count(long day) {
+		if (day >= 0 && day < MAX_DENSE_DAYS) {
+			return day < dense.length ? dense[(int) day] : 0;
+		}
+		int[] count = sparse == null ? null : sparse.get(day);
+		return count == null ? 0 : count[0];
+	}
+
+	public boolean isEmpty() {
+		for (int count : dense) {
+			if (count != 0) return false;
+		}
+		return sparse == null || sparse.values().stream().allMatch(count -> count[0] == 0);
+	}
+
+	public List<BinCount> toBins(Bucketing bucketing) {
+		Emitter emitter = new Emitter(bucketing);
+		if (sparse != null) {
+			for (Map.Entry<Long, int[]> entry : sparse.headMap(0L).entrySet()) {
+				emitter.add(entry.getKey(), entry.getValue()[0]);
+			}
+		}
+		for (int day = 0; day < dense.length; day++) {
+			emitter.add(day, dense[day]);
+		}
+		if (sparse != null) {
+			for (Map.Entry<Long, int[]> entry : sparse.tailMap(0L).entrySet()) {
+				emitter.add(entry.getKey(), entry.getValue()[0]);
+			}
+		}
+		return emitter.finish();
+	}
+
+	private static final class Emitter {
+
+		private final Bucketing bucketing;
+		private final List<BinCount> bins = new ArrayList<>();
+		private long bucket = Long.MIN_VALUE;
+		private long count;
+
+		private Emitter(Bucketing bucketing) {
+			this.bucketing = bucketing;
+		}
+
+		private void add(long day, int delta) {
+			if (delta == 0) {
+				return;
+			}
+			long target = bucketing.bucket(day);
+			if (target != bucket) {
+				flush();
+				bucket = target;
+			}
+			count += delta;
+		}
+
+		private List<BinCount> finish() {
+			flush();
+			return bins;
+		}
+
+		private void flush() {
+			if (count != 0) {
+				bins.add(new BinCount(bucketing.label(bucket), Math.toIntExact(count)));
+			}
+			count = 0;
+		}
+	}
+}
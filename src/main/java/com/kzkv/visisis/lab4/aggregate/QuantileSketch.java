@@ -0,0 +1,190 @@
+package com.kzkv.visisis.lab4.aggregate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Log-linear (HDR-style) histogram of non-negative values. Values below {@code 2^PRECISION_BITS} are counted
+ * exactly; larger values fall into buckets whose width is at most 1/64 of the value, so any quantile is within
+ * ~1.6% of the true one. Memory depends only on the largest value seen (a decade in seconds is ~1,500 buckets),
+ * never on the number of values, and two sketches merge by adding their bucket counts.
+ */
+public final class QuantileSketch {
+
+	private static final int PRECISION_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+	private static final int MAX_BUCKETS = (64 - PRECISION_BITS) * SUB_BUCKETS;
+
+	private long[] counts = new long[SUB_BUCKETS];
+	private long count;
+	private long min = Long.MAX_VALUE;
+	private long max = Long.MIN_VALUE;
+
+	public void add(long value) {
+		add(value, 1);
+	}
+
+	public void add(long value, long times) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value: " + value);
+		}
+		int index = indexOf(value);
+		if (index >= counts.length) {
+			counts = Arrays.copyOf(counts, Math.min(MAX_BUCKETS, Math.max(index + 1, counts.length * 2)));
+		}
+		counts[index] += times;
+		count += times;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Takes back one earlier {@link #add}. If that drops the minimum or maximum, the bound falls back to the edge of
+	 * the nearest occupied bucket, which stays within the sketch's error but may differ slightly from a rebuild.
+	 */
+	public void remove(long value) {
+		int index = value < 0 ? -1 : indexOf(value);
+		if (index < 0 || index >= counts.length || counts[index] == 0) {
+			throw new IllegalArgumentException("Value was never added: " + value);
+		}
+		counts[index]--;
+		count--;
+		if (count == 0) {
+			min = Long.MAX_VALUE;
+			max = Long.MIN_VALUE;
+			return;
+		}
+		if (counts[index] > 0) {
+			return;
+		}
+		if (value == min) {
+			int first = index + 1;
+			while (counts[first] == 0) first++;
+			min = lowerBound(first);
+		}
+		if (value == max) {
+			int last = index - 1;
+			while (counts[last] == 0) last--;
+			max = upperBound(last);
+		}
+	}
+
+	public QuantileSketch merge(QuantileSketch other) {
+		if (other.count == 0) {
+			return this;
+		}
+		if (other.counts.length > counts.length) {
+			counts = Arrays.copyOf(counts, other.counts.length);
+		}
+		for (int i = 0; i < other.counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		return this;
+	}
+
+	public long count() {
+		return count;
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Value at quantile {@code q} (0..1): the midpoint of the bucket holding the rank, clamped to the observed range.
+	 */
+	public long quantile(double q) {
+		if (count == 0) {
+			throw new IllegalStateException("Empty sketch");
+		}
+		long rank = Math.max(1, (long) Math.ceil(q * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				long mid = lowerBound(i) + (upperBound(i) - lowerBound(i)) / 2;
+				return Math.max(min, Math.min(max, mid));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Replays every bucket as its midpoint value, e.g. to bin the sketch into a coarser histogram.
+	 */
+	public void forEachBucket(BucketConsumer consumer) {
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] != 0) {
+				long mid = lowerBound(i) + (upperBound(i) - lowerBound(i)) / 2;
+				consumer.accept(Math.max(min, Math.min(max, mid)), counts[i]);
+			}
+		}
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		int used = counts.length;
+		while (used > 0 && counts[used - 1] == 0) {
+			used--;
+		}
+		out.writeLong(count);
+		out.writeLong(min);
+		out.writeLong(max);
+		out.writeInt(used);
+		for (int i = 0; i < used; i++) {
+			out.writeLong(counts[i]);
+		}
+	}
+
+	public static QuantileSketch read(ByteBuffer buffer) {
+		QuantileSketch sketch = new QuantileSketch();
+		sketch.count = buffer.getLong();
+		sketch.min = buffer.getLong();
+		sketch.max = buffer.getLong();
+		int used = buffer.getInt();
+		if (used < 0 || used > MAX_BUCKETS) {
+			throw new IllegalArgumentException("Corrupt sketch with " + used + " buckets");
+		}
+		sketch.counts = new long[Math.max(SUB_BUCKETS, used)];
+		for (int i = 0; i < used; i++) {
+			sketch.counts[i] = buffer.getLong();
+		}
+		return sketch;
+	}
+
+	static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - PRECISION_BITS;
+		int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + mantissa;
+	}
+
+	static long lowerBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long mantissa = index % SUB_BUCKETS;
+		return (SUB_BUCKETS + mantissa) << shift;
+	}
+
+	static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		return lowerBound(index) + (1L << shift) - 1;
+	}
+
+	@FunctionalInterface
+	public interface BucketConsumer {
+		void accept(long value, long count);
+	}
+}
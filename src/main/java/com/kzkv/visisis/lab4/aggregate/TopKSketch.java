@@ -0,0 +1,142 @@
+package com.kzkv.visisis.lab4.aggregate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Space-Saving heavy hitters over at most {@code capacity} counters. A key that is not tracked replaces the
+ * smallest counter and inherits its count as error, so estimates never undercount and overcount by at most the
+ * smallest tracked count. Two sketches merge by the mergeable-summaries rule: a key missing from a full sketch is
+ * assumed to have that sketch's minimum.
+ */
+public final class TopKSketch {
+
+	private static final Comparator<Counter> BY_COUNT = Comparator.<Counter>comparingLong(counter -> counter.count)
+			.thenComparing(counter -> counter.key, Comparator.reverseOrder());
+
+	private final int capacity;
+	private final Map<String, Counter> counters = new HashMap<>();
+	private final TreeSet<Counter> ordered = new TreeSet<>(BY_COUNT);
+
+	public TopKSketch(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+	}
+
+	public void add(String key) {
+		add(key, 1);
+	}
+
+	public void add(String key, long weight) {
+		Counter counter = counters.get(key);
+		if (counter != null) {
+			ordered.remove(counter);
+			counter.count += weight;
+			ordered.add(counter);
+			return;
+		}
+		if (counters.size() < capacity) {
+			put(new Counter(key, weight, 0));
+			return;
+		}
+		Counter smallest = ordered.pollFirst();
+		counters.remove(smallest.key);
+		put(new Counter(key, smallest.count + weight, smallest.count));
+	}
+
+	public TopKSketch merge(TopKSketch other) {
+		long missingHere = isFull() ? ordered.first().count : 0;
+		long missingThere = other.isFull() ? other.ordered.first().count : 0;
+
+		Map<String, Counter> merged = new HashMap<>();
+		for (Counter counter : counters.values()) {
+			Counter theirs = other.counters.get(counter.key);
+			merged.put(counter.key, theirs != null
+					? new Counter(counter.key, counter.count + theirs.count, counter.error + theirs.error)
+					: new Counter(counter.key, counter.count + missingThere, counter.error + missingThere));
+		}
+		for (Counter theirs : other.counters.values()) {
+			if (!counters.containsKey(theirs.key)) {
+				merged.put(theirs.key, new Counter(theirs.key, theirs.count + missingHere, theirs.error + missingHere));
+			}
+		}
+
+		counters.clear();
+		ordered.clear();
+		merged.values().stream()
+				.sorted(BY_COUNT.reversed())
+				.limit(capacity)
+				.forEach(this::put);
+		return this;
+	}
+
+	public List<Estimate> top(int limit) {
+		List<Estimate> result = new ArrayList<>(Math.min(limit, counters.size()));
+		for (Counter counter : ordered.descendingSet()) {
+			if (result.size() == limit) {
+				break;
+			}
+			result.add(new Estimate(counter.key, counter.count, counter.error));
+		}
+		return result;
+	}
+
+	public int size() {
+		return counters.size();
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(capacity);
+		out.writeInt(counters.size());
+		for (Counter counter : counters.values()) {
+			byte[] key = counter.key.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(key.length);
+			out.write(key);
+			out.writeLong(counter.count);
+			out.writeLong(counter.error);
+		}
+	}
+
+	public static TopKSketch read(ByteBuffer buffer) {
+		TopKSketch sketch = new TopKSketch(buffer.getInt());
+		int size = buffer.getInt();
+		if (size < 0 || size > sketch.capacity) {
+			throw new IllegalArgumentException("Corrupt sketch with " + size + " counters");
+		}
+		for (int i = 0; i < size; i++) {
+			byte[] key = new byte[buffer.getInt()];
+			buffer.get(key);
+			sketch.put(new Counter(new String(key, StandardCharsets.UTF_8), buffer.getLong(), buffer.getLong()));
+		}
+		return sketch;
+	}
+
+	private boolean isFull() {
+		return counters.size() >= capacity;
+	}
+
+	private void put(Counter counter) {
+		counters.put(counter.key, counter);
+		ordered.add(counter);
+	}
+
+	public record Estimate(String key, long count, long error) {}
+
+	private static final class Counter {
+
+		private final String key;
+		private long count;
+		private final long error;
+
+		private Counter(String key, long count, long error) {
+			this.key = key;
+			this.count = count;
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.kzkv.visisis.lab4.columnar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class Dictionary {
+
+	public static final int NULL = -1;
+
+	private final Map<String, Integer> codes = new HashMap<>();
+	private final List<String> values = new ArrayList<>();
+
+	public int encode(String value) {
+		if (value == null) {
+			return NULL;
+		}
+		Integer code = codes.get(value);
+		if (code == null) {
+			code = values.size();
+			codes.put(value, code);
+			values.add(value);
+		}
+		return code;
+	}
+
+	public int lookup(String value) {
+		Integer code = value == null ? null : codes.get(value);
+		return code == null ? NULL : code;
+	}
+
+	public String decode(int code) {
+		return code == NULL ? null : values.get(code);
+	}
+
+	public int size() {
+		return values.size();
+	}
+}
@@ -0,0 +1,306 @@
+package com.kzkv.visisis.lab4.columnar;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Issues stored column by column, with statuses, users and priorities encoded by dictionaries of this table. Status
+ * durations are not stored: they are derived from the timeline segments the way
+ * {@link StatusTimeline#toStatusDurations()} derives them. An issue that carries durations but no timeline is stored
+ * as one whole-day segment per duration and reads back with an empty timeline.
+ */
+public final class IssueTable extends AbstractList<Issue> implements RandomAccess {
+
+	public static final long NO_TIME = Long.MIN_VALUE;
+
+	private static final long SECONDS_PER_DAY = 86_400;
+
+	private final int size;
+	private final String[] keys;
+	private final long[] created;
+	private final long[] resolved;
+	private final int[] status;
+	private final int[] reporter;
+	private final int[] assignee;
+	private final int[] priority;
+	private final int[] timelineOffsets;
+	private final int[] timelineStatus;
+	private final long[] timelineEnter;
+	private final long[] timelineExit;
+	private final boolean[] timelineClosed;
+	private final boolean[] durationsOnly;
+	private final Dictionary statuses;
+	private final Dictionary users;
+	private final Dictionary priorities;
+
+	private IssueTable(Builder builder) {
+		this.size = builder.size;
+		this.keys = Arrays.copyOf(builder.keys, size);
+		this.created = Arrays.copyOf(builder.created, size);
+		this.resolved = Arrays.copyOf(builder.resolved, size);
+		this.status = Arrays.copyOf(builder.status, size);
+		this.reporter = Arrays.copyOf(builder.reporter, size);
+		this.assignee = Arrays.copyOf(builder.assignee, size);
+		this.priority = Arrays.copyOf(builder.priority, size);
+		this.timelineOffsets = Arrays.copyOf(builder.timelineOffsets, size + 1);
+		this.timelineStatus = Arrays.copyOf(builder.timelineStatus, builder.segmentCount);
+		this.timelineEnter = Arrays.copyOf(builder.timelineEnter, builder.segmentCount);
+		this.timelineExit = Arrays.copyOf(builder.timelineExit, builder.segmentCount);
+		this.timelineClosed = Arrays.copyOf(builder.timelineClosed, size);
+		this.durationsOnly = Arrays.copyOf(builder.durationsOnly, size);
+		this.statuses = builder.statuses;
+		this.users = builder.users;
+		this.priorities = builder.priorities;
+	}
+
+	public static IssueTable of(List<Issue> issues) {
+		if (issues instanceof IssueTable table) {
+			return table;
+		}
+		Builder builder = new Builder(issues.size());
+		issues.forEach(builder::add);
+		return builder.build();
+	}
+
+	@Override
+	public Issue get(int row) {
+		Objects.checkIndex(row, size);
+		int[] codes = new int[timelineOffsets[row + 1] - timelineOffsets[row]];
+		long[] days = new long[codes.length];
+		int count = durations(row, codes, days);
+		List<StatusDuration> durations = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			durations.add(new StatusDuration(statuses.decode(codes[i]), days[i]));
+		}
+		return new Issue(
+				keys[row],
+				toDateTime(created[row]),
+				toDateTime(resolved[row]),
+				statuses.decode(status[row]),
+				users.decode(reporter[row]),
+				users.decode(assignee[row]),
+				priorities.decode(priority[row]),
+				List.copyOf(durations),
+				timeline(row)
+		);
+	}
+
+	public StatusTimeline timeline(int row) {
+		if (durationsOnly[row]) {
+			return StatusTimeline.EMPTY;
+		}
+		int from = timelineOffsets[row];
+		int to = timelineOffsets[row + 1];
+		String[] names = new String[to - from];
+		for (int t = from; t < to; t++) {
+			names[t - from] = statuses.decode(timelineStatus[t]);
+		}
+		return StatusTimeline.of(
+				names,
+				Arrays.copyOfRange(timelineEnter, from, to),
+				Arrays.copyOfRange(timelineExit, from, to),
+				timelineClosed[row]
+		);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public long created(int row) {
+		return created[row];
+	}
+
+	public long resolved(int row) {
+		return resolved[row];
+	}
+
+	public int reporter(int row) {
+		return reporter[row];
+	}
+
+	public int assignee(int row) {
+		return assignee[row];
+	}
+
+	public int priority(int row) {
+		return priority[row];
+	}
+
+	/**
+	 * Groups the segments of a resolved row by status: writes the status codes, in order of first appearance, to
+	 * {@code codes} and their whole days to {@code days}, and returns how many statuses there are. Segments without a
+	 * status are skipped. Arrays as long as {@link #statuses()} is large always have room.
+	 */
+	public int durations(int row, int[] codes, long[] days) {
+		if (!timelineClosed[row]) {
+			return 0;
+		}
+		int count = 0;
+		for (int t = timelineOffsets[row]; t < timelineOffsets[row + 1]; t++) {
+			int status = timelineStatus[t];
+			if (status == Dictionary.NULL) {
+				continue;
+			}
+			int i = 0;
+			while (i < count && codes[i] != status) {
+				i++;
+			}
+			if (i == count) {
+				codes[count] = status;
+				days[count++] = 0;
+			}
+			days[i] += (timelineExit[t] - timelineEnter[t]) / SECONDS_PER_DAY;
+		}
+		return count;
+	}
+
+	public int timelineStart(int row) {
+		return timelineOffsets[row];
+	}
+
+	public int timelineEnd(int row) {
+		return timelineOffsets[row + 1];
+	}
+
+	public int timelineStatus(int index) {
+		return timelineStatus[index];
+	}
+
+	public long timelineEnter(int index) {
+		return timelineEnter[index];
+	}
+
+	public long timelineExit(int index) {
+		return timelineExit[index];
+	}
+
+	public Dictionary statuses() {
+		return statuses;
+	}
+
+	public Dictionary users() {
+		return users;
+	}
+
+	public Dictionary priorities() {
+		return priorities;
+	}
+
+	private static long toEpochSecond(LocalDateTime time) {
+		return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+	}
+
+	private static LocalDateTime toDateTime(long epochSecond) {
+		return epochSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+	}
+
+	public static final class Builder {
+
+		private int size;
+		private String[] keys;
+		private long[] created;
+		private long[] resolved;
+		private int[] status;
+		private int[] reporter;
+		private int[] assignee;
+		private int[] priority;
+		private int[] timelineOffsets;
+		private int segmentCount;
+		private int[] timelineStatus;
+		private long[] timelineEnter;
+		private long[] timelineExit;
+		private boolean[] timelineClosed;
+		private boolean[] durationsOnly;
+		private final Dictionary statuses = new Dictionary();
+		private final Dictionary users = new Dictionary();
+		private final Dictionary priorities = new Dictionary();
+
+		public Builder(int capacity) {
+			int rows = Math.max(capacity, 16);
+			keys = new String[rows];
+			created = new long[rows];
+			resolved = new long[rows];
+			status = new int[rows];
+			reporter = new int[rows];
+			assignee = new int[rows];
+			priority = new int[rows];
+			timelineOffsets = new int[rows + 1];
+			timelineStatus = new int[rows * 3];
+			timelineEnter = new long[rows * 3];
+			timelineExit = new long[rows * 3];
+			timelineClosed = new boolean[rows];
+			durationsOnly = new boolean[rows];
+		}
+
+		public Builder add(Issue issue) {
+			if (size == keys.length) {
+				int rows = size * 2;
+				keys = Arrays.copyOf(keys, rows);
+				created = Arrays.copyOf(created, rows);
+				resolved = Arrays.copyOf(resolved, rows);
+				status = Arrays.copyOf(status, rows);
+				reporter = Arrays.copyOf(reporter, rows);
+				assignee = Arrays.copyOf(assignee, rows);
+				priority = Arrays.copyOf(priority, rows);
+				timelineOffsets = Arrays.copyOf(timelineOffsets, rows + 1);
+				timelineClosed = Arrays.copyOf(timelineClosed, rows);
+				durationsOnly = Arrays.copyOf(durationsOnly, rows);
+			}
+			StatusTimeline timeline = issue.timeline();
+			boolean fromDurations = timeline.size() == 0 && !issue.statusDurations().isEmpty();
+			int segments = segmentCount + (fromDurations ? issue.statusDurations().size() : timeline.size());
+			if (segments > timelineStatus.length) {
+				int length = Math.max(segments, timelineStatus.length * 2);
+				timelineStatus = Arrays.copyOf(timelineStatus, length);
+				timelineEnter = Arrays.copyOf(timelineEnter, length);
+				timelineExit = Arrays.copyOf(timelineExit, length);
+			}
+
+			keys[size] = issue.key();
+			created[size] = toEpochSecond(issue.created());
+			resolved[size] = toEpochSecond(issue.resolved());
+			status[size] = statuses.encode(issue.status());
+			reporter[size] = users.encode(issue.reporter());
+			assignee[size] = users.encode(issue.assignee());
+			priority[size] = priorities.encode(issue.priority());
+			if (fromDurations) {
+				long at = created[size] == NO_TIME ? 0 : created[size];
+				for (StatusDuration duration : issue.statusDurations()) {
+					timelineStatus[segmentCount] = statuses.encode(duration.status());
+					timelineEnter[segmentCount] = at;
+					at += duration.days() * SECONDS_PER_DAY;
+					timelineExit[segmentCount] = at;
+					segmentCount++;
+				}
+			} else {
+				for (int t = 0; t < timeline.size(); t++) {
+					timelineStatus[segmentCount] = statuses.encode(timeline.statusName(t));
+					timelineEnter[segmentCount] = timeline.enter(t);
+					timelineExit[segmentCount] = timeline.exit(t);
+					segmentCount++;
+				}
+			}
+			timelineClosed[size] = fromDurations || timeline.closed();
+			durationsOnly[size] = fromDurations;
+			size++;
+			timelineOffsets[size] = segmentCount;
+			return this;
+		}
+
+		public IssueTable build() {
+			return new IssueTable(this);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.kzkv.visisis.lab4.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+
+import java.time.Duration;
+import java.util.Collection;
+
+@Configuration
+public class CacheConfig {
+
+	@Bean
+	public Caffeine<Object, Object> issuesCaffeine(
+			@Value("${cache.issues.max-issues:1000000}") long maxIssues,
+			@Value("${cache.issues.ttl:30m}") Duration ttl,
+			@Value("${cache.issues.refresh-after:10m}") Duration refreshAfter,
+			TaskExecutor taskExecutor) {
+		return Caffeine.newBuilder()
+				.maximumWeight(maxIssues)
+				.weigher((Object key, Object value) -> value instanceof Collection<?> issues ? Math.max(1, issues.size()) : 1)
+				.expireAfterWrite(ttl)
+				.refreshAfterWrite(refreshAfter)
+				.executor(taskExecutor)
+				.recordStats();
+	}
+}
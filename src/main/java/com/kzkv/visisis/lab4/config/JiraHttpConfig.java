@@ -0,0 +1,58 @@
+package com.kzkv.visisis.lab4.config;
+
+import com.kzkv.visisis.lab4.http.GzipRequestInterceptor;
+import com.kzkv.visisis.lab4.http.ResponseDeadlineInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class JiraHttpConfig {
+
+	@Bean(destroyMethod = "close")
+	public HttpClient jiraHttpClient(
+			@Value("${jira.http.version:HTTP_2}") HttpClient.Version version,
+			@Value("${jira.http.connect-timeout:5s}") Duration connectTimeout) {
+		return HttpClient.newBuilder()
+				.version(version)
+				.connectTimeout(connectTimeout)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build();
+	}
+
+	@Bean(destroyMethod = "close")
+	public ResponseDeadlineInterceptor responseDeadlineInterceptor(
+			@Value("${jira.http.total-timeout:60s}") Duration totalTimeout) {
+		return new ResponseDeadlineInterceptor(totalTimeout);
+	}
+
+	@Bean
+	public RestTemplate restTemplate(
+			RestTemplateBuilder builder,
+			HttpClient jiraHttpClient,
+			ResponseDeadlineInterceptor responseDeadlineInterceptor,
+			@Value("${jira.http.read-timeout:30s}") Duration readTimeout,
+			@Value("${jira.http.compression:true}") boolean compression) {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(jiraHttpClient);
+		requestFactory.setReadTimeout(readTimeout);
+
+		List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+		interceptors.add(responseDeadlineInterceptor);
+		if (compression) {
+			interceptors.add(new GzipRequestInterceptor());
+		}
+		return builder
+				.requestFactory(() -> requestFactory)
+				.additionalInterceptors(interceptors)
+				.build();
+	}
+}
@@ -0,0 +1,35 @@
+package com.kzkv.visisis.lab4.config;
+
+import com.kzkv.visisis.lab4.resilience.AdaptiveLimiter;
+import com.kzkv.visisis.lab4.resilience.Backoff;
+import com.kzkv.visisis.lab4.resilience.CircuitBreaker;
+import com.kzkv.visisis.lab4.resilience.JiraGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class JiraResilienceConfig {
+
+	@Bean
+	public JiraGuard jiraGuard(
+			@Value("${jira.resilience.limit.initial:4}") int initialLimit,
+			@Value("${jira.resilience.limit.min:1}") int minLimit,
+			@Value("${jira.resilience.limit.max:8}") int maxLimit,
+			@Value("${jira.resilience.limit.queue-timeout:10s}") Duration queueTimeout,
+			@Value("${jira.resilience.breaker.window:20}") int window,
+			@Value("${jira.resilience.breaker.minimum-calls:5}") int minimumCalls,
+			@Value("${jira.resilience.breaker.failure-rate:0.5}") double failureRate,
+			@Value("${jira.resilience.breaker.open-duration:30s}") Duration openDuration,
+			@Value("${jira.resilience.retry.max-attempts:3}") int maxAttempts,
+			@Value("${jira.resilience.retry.base-delay:200ms}") Duration baseDelay,
+			@Value("${jira.resilience.retry.max-delay:5s}") Duration maxDelay) {
+		return new JiraGuard(
+				new CircuitBreaker(window, minimumCalls, failureRate, openDuration),
+				new AdaptiveLimiter(initialLimit, minLimit, maxLimit, queueTimeout),
+				new Backoff(baseDelay, maxDelay),
+				maxAttempts);
+	}
+}
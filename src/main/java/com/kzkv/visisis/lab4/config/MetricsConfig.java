@@ -0,0 +1,57 @@
+package com.kzkv.visisis.lab4.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.kzkv.visisis.lab4.resilience.JiraGuard;
+import com.kzkv.visisis.lab4.service.IssueLoader;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+	@Bean
+	public MeterBinder issuesCacheMetrics(CacheManager cacheManager, IssueLoader issueLoader) {
+		return registry -> {
+			if (cacheManager.getCache("issues") instanceof CaffeineCache caffeineCache) {
+				Cache<Object, Object> cache = caffeineCache.getNativeCache();
+				Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+						.tag("cache", "issues")
+						.register(registry);
+				Gauge.builder("cache.weighted.size", cache, c -> c.policy().eviction()
+								.map(eviction -> eviction.weightedSize().orElse(c.estimatedSize()))
+								.orElse(c.estimatedSize()))
+						.tag("cache", "issues")
+						.baseUnit("issues")
+						.register(registry);
+			}
+			FunctionCounter.builder("jira.single.flight", issueLoader, loader -> loader.singleFlightStatistics().coalesced())
+					.tag("result", "coalesced")
+					.register(registry);
+			FunctionCounter.builder("jira.single.flight", issueLoader, loader -> loader.singleFlightStatistics().executed())
+					.tag("result", "executed")
+					.register(registry);
+		};
+	}
+
+	@Bean
+	public MeterBinder jiraGuardMetrics(JiraGuard jiraGuard) {
+		return registry -> {
+			Gauge.builder("jira.concurrency.limit", jiraGuard, JiraGuard::limit)
+					.register(registry);
+			Gauge.builder("jira.concurrency.in.flight", jiraGuard, JiraGuard::inFlight)
+					.register(registry);
+			Gauge.builder("jira.circuit.state", jiraGuard, guard -> guard.state().ordinal())
+					.description("0 = closed, 1 = open, 2 = half open")
+					.register(registry);
+			FunctionCounter.builder("jira.retries", jiraGuard, JiraGuard::retries)
+					.register(registry);
+			FunctionCounter.builder("jira.rejected", jiraGuard, JiraGuard::rejected)
+					.register(registry);
+		};
+	}
+}
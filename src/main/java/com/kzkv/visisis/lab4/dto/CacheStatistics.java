@@ -0,0 +1,12 @@
+package com.kzkv.visisis.lab4.dto;
+
+public record CacheStatistics(
+		long hitCount,
+		long missCount,
+		double hitRate,
+		long evictionCount,
+		long evictionWeight,
+		long loadFailureCount,
+		long estimatedSize,
+		long weightedSize
+) {}
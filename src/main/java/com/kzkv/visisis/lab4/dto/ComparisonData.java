@@ -0,0 +1,12 @@
+package com.kzkv.visisis.lab4.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public record ComparisonData(
+		List<String> projects,
+		Map<String, Object> combined,
+		Map<String, ComparisonSeries> sideBySide,
+		Set<String> unavailable
+) {}
@@ -0,0 +1,6 @@
+package com.kzkv.visisis.lab4.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record ComparisonSeries(List<String> labels, Map<String, List<Integer>> counts) {}
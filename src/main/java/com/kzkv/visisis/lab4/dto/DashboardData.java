@@ -0,0 +1,6 @@
+package com.kzkv.visisis.lab4.dto;
+
+import java.util.Map;
+import java.util.Set;
+
+public record DashboardData(Map<String, Object> widgets, Set<String> unavailable) {}
@@ -1,9 +1,10 @@
 package com.kzkv.visisis.lab4.dto;
 
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public record Issue(
 		String key,
@@ -13,26 +14,42 @@ public record Issue(
 		String reporter,
 		String assignee,
 		String priority,
-		List<StatusDuration> statusDurations
+		List<StatusDuration> statusDurations,
+		StatusTimeline timeline
 ) {
 
 	private static final DateTimeFormatter JIRA_FORMAT =
 			DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
+	public Issue(String key, LocalDateTime created, LocalDateTime resolved, String status,
+				 String reporter, String assignee, String priority, List<StatusDuration> statusDurations) {
+		this(key, created, resolved, status, reporter, assignee, priority, statusDurations, StatusTimeline.EMPTY);
+	}
+
+	public Issue(String key, LocalDateTime created, LocalDateTime resolved, String status,
+				 String reporter, String assignee, String priority, StatusTimeline timeline) {
+		this(key, created, resolved, status, reporter, assignee, priority, timeline.toStatusDurations(), timeline);
+	}
+
 	public Issue(Map<String, Object> map) {
+		this(map, parseDate(getNested(map, "fields.created")), parseDate(getNested(map, "fields.resolutiondate")),
+				getNested(map, "fields.status.name"));
+	}
+
+	private Issue(Map<String, Object> map, LocalDateTime created, LocalDateTime resolved, String status) {
 		this(
 				(String) map.get("key"),
-				parseDate(getNested(map, "fields.created")),
-				parseDate(getNested(map, "fields.resolutiondate")),
-				getNested(map, "fields.status.name"),
+				created,
+				resolved,
+				status,
 				getNested(map, "fields.reporter.displayName"),
 				getNested(map, "fields.assignee.displayName"),
 				getNested(map, "fields.priority.name"),
-				parseChangelog(map)
+				StatusTimeline.of(created, resolved, status, parseChangelog(map))
 		);
 	}
 
-	private static LocalDateTime parseDate(Object obj) {
+	public static LocalDateTime parseDate(Object obj) {
 		if (obj == null) return null;
 		String str = obj.toString();
 		if (str.length() < 19) return null;
@@ -50,66 +67,36 @@ public record Issue(
 		return current instanceof String ? (String) current : current != null ? current.toString() : null;
 	}
 
-	private static List<StatusDuration> parseChangelog(Map<String, Object> issueMap) {
-		LocalDateTime created = parseDate(getNested(issueMap, "fields.created"));
-		LocalDateTime resolved = parseDate(getNested(issueMap, "fields.resolutiondate"));
-		if (created == null || resolved == null) {
-			return List.of();
-		}
-
+	private static List<StatusChange> parseChangelog(Map<String, Object> issueMap) {
 		Object changelogObj = issueMap.get("changelog");
-		if (!(changelogObj instanceof Map)) return List.of();
+		if (!(changelogObj instanceof Map)) return null;
 
 		List<Map<?, ?>> histories = (List<Map<?, ?>>) ((Map<?, ?>) changelogObj).get("histories");
-		if (histories == null) return List.of();
-
-		histories = histories.stream()
-				.filter(h -> h.get("created") != null)
-				.sorted(Comparator.comparing(h -> parseDate(h.get("created").toString())))
-				.toList();
-
-		List<StatusEntry> entries = new ArrayList<>();
-		String currentStatus = getNested(issueMap, "fields.status.name");
-		LocalDateTime lastTime = created;
+		if (histories == null) return null;
 
+		List<StatusChange> changes = new ArrayList<>();
 		for (Map<?, ?> history : histories) {
-			LocalDateTime changeTime = parseDate(history.get("created").toString());
-			if (changeTime == null || changeTime.isBefore(lastTime)) continue;
+			LocalDateTime changeTime = parseDate(history.get("created"));
+			if (changeTime == null) continue;
 
 			List<Map<?, ?>> items = (List<Map<?, ?>>) history.get("items");
 			if (items == null) continue;
 
 			for (Map<?, ?> item : items) {
 				if ("status".equals(item.get("field"))) {
-					String fromStatus = (String) item.get("fromString");
-					if (fromStatus != null) {
-						long days = java.time.Duration.between(lastTime, changeTime).toDays();
-						if (days >= 0) {
-							entries.add(new StatusEntry(fromStatus, days));
-						}
-					}
-					lastTime = changeTime;
-					currentStatus = (String) item.get("toString");
+					changes.add(new StatusChange(changeTime, (String) item.get("fromString"), (String) item.get("toString")));
 				}
 			}
 		}
+		return changes;
+	}
 
-		if (lastTime != null && resolved != null && !lastTime.isAfter(resolved)) {
-			long days = java.time.Duration.between(lastTime, resolved).toDays();
-			if (days >= 0) {
-				entries.add(new StatusEntry(currentStatus, days));
-			}
+	public static List<StatusDuration> statusDurations(LocalDateTime created, LocalDateTime resolved,
+													   String currentStatus, List<StatusChange> changes) {
+		if (created == null || resolved == null || changes == null) {
+			return List.of();
 		}
-
-		return entries.stream()
-				.collect(Collectors.groupingBy(
-						StatusEntry::status,
-						Collectors.summingLong(StatusEntry::days)
-				))
-				.entrySet().stream()
-				.map(e -> new StatusDuration(e.getKey(), e.getValue()))
-				.toList();
+		return StatusTimeline.of(created, resolved, currentStatus, changes).toStatusDurations();
 	}
 
-
-}
\ No newline at end of file
+}
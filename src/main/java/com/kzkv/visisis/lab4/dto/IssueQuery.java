@@ -0,0 +1,3 @@
+package com.kzkv.visisis.lab4.dto;
+
+public record IssueQuery(String jql, int maxResults) {}
@@ -0,0 +1,15 @@
+package com.kzkv.visisis.lab4.dto;
+
+import java.util.List;
+
+/**
+ * Published when a delta sync turns {@code previous} into {@code current}. {@code removed} holds the earlier versions
+ * of updated issues, {@code added} their new versions and any new issues; all other issues are equal in both lists.
+ */
+public record IssuesChangedEvent(
+		IssueQuery query,
+		List<Issue> previous,
+		List<Issue> current,
+		List<Issue> removed,
+		List<Issue> added
+) {}
@@ -0,0 +1,5 @@
+package com.kzkv.visisis.lab4.dto;
+
+import java.util.List;
+
+public record JiraSearchPage(int startAt, int total, List<Issue> issues) {}
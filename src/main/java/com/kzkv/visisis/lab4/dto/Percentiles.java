@@ -0,0 +1,3 @@
+package com.kzkv.visisis.lab4.dto;
+
+public record Percentiles(long count, double p50, double p90, double p99) {}
@@ -0,0 +1,3 @@
+package com.kzkv.visisis.lab4.dto;
+
+public record SingleFlightStatistics(long executed, long coalesced, long failed, int inFlight) {}
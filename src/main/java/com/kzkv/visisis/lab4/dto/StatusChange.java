@@ -0,0 +1,5 @@
+package com.kzkv.visisis.lab4.dto;
+
+import java.time.LocalDateTime;
+
+public record StatusChange(LocalDateTime at, String from, String to) {}
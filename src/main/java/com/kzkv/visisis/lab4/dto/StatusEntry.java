@@ -1,3 +0,0 @@
-package com.kzkv.visisis.lab4.dto;
-
-public record StatusEntry(String status, long days) {}
\ No newline at end of file
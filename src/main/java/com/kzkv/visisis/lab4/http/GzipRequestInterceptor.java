@@ -0,0 +1,69 @@
+package com.kzkv.visisis.lab4.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private static final String GZIP = "gzip";
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, GZIP);
+		ClientHttpResponse response = execution.execute(request, body);
+		String encoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+		return encoding != null && encoding.trim().equalsIgnoreCase(GZIP) ? new GunzippedResponse(response) : response;
+	}
+
+	private static final class GunzippedResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+		private final HttpHeaders headers;
+		private InputStream body;
+
+		private GunzippedResponse(ClientHttpResponse delegate) {
+			this.delegate = delegate;
+			this.headers = new HttpHeaders();
+			this.headers.putAll(delegate.getHeaders());
+			this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+			this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+		}
+
+		@Override
+		public HttpStatusCode getStatusCode() throws IOException {
+			return delegate.getStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			if (body == null) {
+				body = new GZIPInputStream(delegate.getBody(), 16 * 1024);
+			}
+			return body;
+		}
+
+		@Override
+		public void close() {
+			delegate.close();
+		}
+	}
+}
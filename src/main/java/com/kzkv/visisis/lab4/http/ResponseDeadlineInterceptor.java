@@ -0,0 +1,154 @@
+package com.kzkv.visisis.lab4.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds a whole Jira exchange, including reading the body, by {@code jira.http.total-timeout}; a body still being
+ * read at the deadline is closed so a blocked read fails with a {@link SocketTimeoutException}.
+ * <p>
+ * This interceptor does not limit concurrency. The adaptive limit of {@code JiraGuard} is the one bound on requests in
+ * flight to Jira, and {@code jira.fetch-concurrency} only caps how many of those slots the pages of a single fetch
+ * may take.
+ */
+public class ResponseDeadlineInterceptor implements ClientHttpRequestInterceptor, AutoCloseable {
+
+	private final Duration totalTimeout;
+	private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(
+			Thread.ofPlatform().name("jira-http-deadline").daemon().factory());
+
+	public ResponseDeadlineInterceptor(Duration totalTimeout) {
+		this.totalTimeout = totalTimeout;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		long deadline = System.nanoTime() + totalTimeout.toNanos();
+		return new DeadlineResponse(execution.execute(request, body), deadline);
+	}
+
+	@Override
+	public void close() {
+		deadlines.shutdownNow();
+	}
+
+	private final class DeadlineResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+		private final long deadline;
+		private final AtomicBoolean closed = new AtomicBoolean();
+		private volatile ScheduledFuture<?> expiry;
+		private volatile boolean expired;
+		private InputStream body;
+
+		private DeadlineResponse(ClientHttpResponse delegate, long deadline) {
+			this.delegate = delegate;
+			this.deadline = deadline;
+			this.expiry = deadlines.schedule(this::expire, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public HttpStatusCode getStatusCode() throws IOException {
+			return delegate.getStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		@Override
+		public synchronized InputStream getBody() throws IOException {
+			if (body == null) {
+				body = new FilterInputStream(delegate.getBody()) {
+					@Override
+					public int read() throws IOException {
+						checkOpen();
+						int b;
+						try {
+							b = super.read();
+						} catch (IOException e) {
+							throw expired ? timeout(e) : e;
+						}
+						checkDeadline();
+						return b;
+					}
+
+					@Override
+					public int read(byte[] b, int off, int len) throws IOException {
+						checkOpen();
+						int n;
+						try {
+							n = super.read(b, off, len);
+						} catch (IOException e) {
+							throw expired ? timeout(e) : e;
+						}
+						checkDeadline();
+						return n;
+					}
+				};
+			}
+			return body;
+		}
+
+		private void checkOpen() throws IOException {
+			checkDeadline();
+			if (closed.get()) {
+				throw new IOException("Jira response already closed");
+			}
+		}
+
+		private void checkDeadline() throws SocketTimeoutException {
+			if (expired || System.nanoTime() - deadline > 0) {
+				throw timeout(null);
+			}
+		}
+
+		private SocketTimeoutException timeout(IOException cause) {
+			SocketTimeoutException timeout = new SocketTimeoutException("Jira response not completed within " + totalTimeout);
+			timeout.initCause(cause);
+			return timeout;
+		}
+
+		/**
+		 * Runs on the deadline thread. The flag is set before closing, so a read that fails because of the close is
+		 * reported as a timeout rather than as an I/O error.
+		 */
+		private void expire() {
+			expired = true;
+			close();
+		}
+
+		@Override
+		public void close() {
+			if (closed.compareAndSet(false, true)) {
+				ScheduledFuture<?> scheduled = expiry;
+				if (scheduled != null) {
+					scheduled.cancel(false);
+				}
+				delegate.close();
+			}
+		}
+	}
+}
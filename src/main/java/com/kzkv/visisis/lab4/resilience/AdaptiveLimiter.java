@@ -0,0 +1,120 @@
+package com.kzkv.visisis.lab4.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows the observed latency: the limit grows while requests complete close to the
+ * long-term average round trip time and shrinks when they slow down or are dropped.
+ */
+public class AdaptiveLimiter {
+
+	private static final double LONG_RTT_WEIGHT = 0.05;
+	private static final double SMOOTHING = 0.2;
+	private static final double TOLERANCE = 1.5;
+	private static final double BACKOFF_RATIO = 0.9;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final long queueTimeoutNanos;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition released = lock.newCondition();
+
+	private double limit;
+	private double longRtt;
+	private int inFlight;
+
+	public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, Duration queueTimeout) {
+		if (minLimit < 1 || maxLimit < minLimit) {
+			throw new IllegalArgumentException("Invalid limits: min=" + minLimit + ", max=" + maxLimit);
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.queueTimeoutNanos = queueTimeout.toNanos();
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+	}
+
+	public Permit acquire() throws InterruptedException {
+		lock.lock();
+		try {
+			long remaining = queueTimeoutNanos;
+			while (inFlight >= (int) limit) {
+				if (remaining <= 0) {
+					throw new LimitExceededException("Jira concurrency limit of " + (int) limit + " reached");
+				}
+				remaining = released.awaitNanos(remaining);
+			}
+			inFlight++;
+			return new Permit();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int limit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int inFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void release(long rttNanos, boolean dropped) {
+		lock.lock();
+		try {
+			boolean saturated = inFlight * 2 >= limit;
+			inFlight--;
+			if (dropped) {
+				limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+			} else if (rttNanos > 0) {
+				longRtt = longRtt == 0 ? rttNanos : longRtt * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+				double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rttNanos));
+				double target = limit * gradient + (saturated ? Math.sqrt(limit) : 0);
+				if (target < limit || saturated) {
+					limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+				}
+			}
+			released.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public final class Permit {
+
+		private boolean released;
+
+		private Permit() {
+		}
+
+		public void success(long rttNanos) {
+			release(rttNanos, false);
+		}
+
+		public void dropped() {
+			release(0, true);
+		}
+
+		public void ignore() {
+			release(0, false);
+		}
+
+		private void release(long rttNanos, boolean dropped) {
+			if (!released) {
+				released = true;
+				AdaptiveLimiter.this.release(rttNanos, dropped);
+			}
+		}
+	}
+}
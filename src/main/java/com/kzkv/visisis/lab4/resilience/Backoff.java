@@ -0,0 +1,16 @@
+package com.kzkv.visisis.lab4.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: attempt {@code n} waits a random time up to {@code base * 2^n},
+ * capped at {@code max}.
+ */
+public record Backoff(Duration base, Duration max) {
+
+	public Duration delay(int attempt) {
+		long ceiling = Math.min(max.toMillis(), base.toMillis() << Math.min(attempt, 30));
+		return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+	}
+}
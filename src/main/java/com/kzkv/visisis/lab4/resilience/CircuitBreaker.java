@@ -0,0 +1,118 @@
+package com.kzkv.visisis.lab4.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. Opens when the failure rate over the last {@code windowSize} calls reaches the
+ * threshold, fails fast for {@code openDuration}, then lets a single trial call decide whether to close again.
+ */
+public class CircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private final boolean[] window;
+	private final int minimumCalls;
+	private final double failureRateThreshold;
+	private final long openNanos;
+	private final LongSupplier nanoTime;
+
+	private State state = State.CLOSED;
+	private int position;
+	private int calls;
+	private int failures;
+	private long openedAt;
+	private boolean trialInFlight;
+
+	public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration) {
+		this(windowSize, minimumCalls, failureRateThreshold, openDuration, System::nanoTime);
+	}
+
+	CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+				   LongSupplier nanoTime) {
+		this.window = new boolean[windowSize];
+		this.minimumCalls = Math.min(minimumCalls, windowSize);
+		this.failureRateThreshold = failureRateThreshold;
+		this.openNanos = openDuration.toNanos();
+		this.nanoTime = nanoTime;
+	}
+
+	public synchronized boolean tryAcquire() {
+		switch (state) {
+			case CLOSED -> {
+				return true;
+			}
+			case OPEN -> {
+				if (nanoTime.getAsLong() - openedAt < openNanos) {
+					return false;
+				}
+				state = State.HALF_OPEN;
+				trialInFlight = true;
+				return true;
+			}
+			default -> {
+				if (trialInFlight) {
+					return false;
+				}
+				trialInFlight = true;
+				return true;
+			}
+		}
+	}
+
+	public synchronized void release() {
+		trialInFlight = false;
+	}
+
+	public synchronized void onSuccess() {
+		if (state == State.HALF_OPEN) {
+			close();
+		} else if (state == State.CLOSED) {
+			record(false);
+		}
+	}
+
+	public synchronized void onFailure() {
+		if (state == State.HALF_OPEN) {
+			open();
+		} else if (state == State.CLOSED) {
+			record(true);
+			if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+				open();
+			}
+		}
+	}
+
+	public synchronized State state() {
+		return state;
+	}
+
+	private void record(boolean failure) {
+		if (calls == window.length) {
+			if (window[position]) {
+				failures--;
+			}
+		} else {
+			calls++;
+		}
+		window[position] = failure;
+		if (failure) {
+			failures++;
+		}
+		position = (position + 1) % window.length;
+	}
+
+	private void open() {
+		state = State.OPEN;
+		openedAt = nanoTime.getAsLong();
+		trialInFlight = false;
+	}
+
+	private void close() {
+		state = State.CLOSED;
+		trialInFlight = false;
+		position = 0;
+		calls = 0;
+		failures = 0;
+	}
+}
@@ -0,0 +1,8 @@
+package com.kzkv.visisis.lab4.resilience;
+
+public class CircuitOpenException extends RuntimeException {
+
+	public CircuitOpenException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,127 @@
+package com.kzkv.visisis.lab4.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Wraps single Jira requests with the circuit breaker, the adaptive concurrency limit and jittered retries.
+ * Only transient failures (I/O errors, 5xx and 429) count against Jira and are retried.
+ */
+@Slf4j
+public class JiraGuard {
+
+	private final CircuitBreaker circuitBreaker;
+	private final AdaptiveLimiter limiter;
+	private final Backoff backoff;
+	private final int maxAttempts;
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	public JiraGuard(CircuitBreaker circuitBreaker, AdaptiveLimiter limiter, Backoff backoff, int maxAttempts) {
+		this.circuitBreaker = circuitBreaker;
+		this.limiter = limiter;
+		this.backoff = backoff;
+		this.maxAttempts = Math.max(1, maxAttempts);
+	}
+
+	public <T> T call(String description, Supplier<T> request) {
+		RuntimeException last = null;
+		for (int attempt = 0; attempt < maxAttempts; attempt++) {
+			if (attempt > 0) {
+				retries.increment();
+				pause(retryDelay(attempt - 1, last), last);
+			}
+			if (!circuitBreaker.tryAcquire()) {
+				rejected.increment();
+				throw new CircuitOpenException("Jira circuit is open, not calling " + description, last);
+			}
+
+			AdaptiveLimiter.Permit permit;
+			try {
+				permit = limiter.acquire();
+			} catch (InterruptedException e) {
+				circuitBreaker.release();
+				Thread.currentThread().interrupt();
+				throw new ResourceAccessException("Interrupted waiting for a Jira slot for " + description);
+			} catch (LimitExceededException e) {
+				circuitBreaker.release();
+				rejected.increment();
+				throw e;
+			}
+
+			long started = System.nanoTime();
+			try {
+				T result = request.get();
+				permit.success(System.nanoTime() - started);
+				circuitBreaker.onSuccess();
+				return result;
+			} catch (RuntimeException e) {
+				if (!isTransient(e)) {
+					permit.ignore();
+					circuitBreaker.onSuccess();
+					throw e;
+				}
+				permit.dropped();
+				circuitBreaker.onFailure();
+				log.warn("Jira request for {} failed (attempt {}/{}): {}", description, attempt + 1, maxAttempts, e.toString());
+				last = e;
+			}
+		}
+		throw last;
+	}
+
+	public CircuitBreaker.State state() {
+		return circuitBreaker.state();
+	}
+
+	public int limit() {
+		return limiter.limit();
+	}
+
+	public int inFlight() {
+		return limiter.inFlight();
+	}
+
+	public long retries() {
+		return retries.sum();
+	}
+
+	public long rejected() {
+		return rejected.sum();
+	}
+
+	static boolean isTransient(RuntimeException e) {
+		return e instanceof ResourceAccessException
+				|| e instanceof HttpServerErrorException
+				|| e instanceof HttpClientErrorException.TooManyRequests;
+	}
+
+	private Duration retryDelay(int attempt, RuntimeException failure) {
+		Duration delay = backoff.delay(attempt);
+		if (failure instanceof RestClientResponseException response && response.getResponseHeaders() != null) {
+			String retryAfter = response.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+			if (retryAfter != null && retryAfter.matches("\\d+")) {
+				Duration requested = Duration.ofSeconds(Long.parseLong(retryAfter));
+				delay = requested.compareTo(backoff.max()) > 0 ? backoff.max() : requested;
+			}
+		}
+		return delay;
+	}
+
+	private static void pause(Duration delay, RuntimeException failure) {
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,8 @@
+package com.kzkv.visisis.lab4.resilience;
+
+public class LimitExceededException extends RuntimeException {
+
+	public LimitExceededException(String message) {
+		super(message);
+	}
+}
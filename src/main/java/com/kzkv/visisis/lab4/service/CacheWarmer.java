@@ -0,0 +1,172 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer implements ApplicationRunner {
+
+	private final CacheManager cacheManager;
+	private final TaskExecutor taskExecutor;
+	private final TaskScheduler taskScheduler;
+
+	private final Map<ProjectRequest, AtomicLong> demand = new ConcurrentHashMap<>();
+	private final Set<ProjectRequest> inFlight = ConcurrentHashMap.newKeySet();
+
+	@Value("${cache.warmer.enabled:true}")
+	private boolean enabled;
+
+	@Value("${cache.warmer.hot-projects:10}")
+	private int hotProjects;
+
+	@Value("${cache.warmer.max-tracked:1000}")
+	private int maxTracked;
+
+	@Value("${cache.warmer.max-concurrent:2}")
+	private int maxConcurrent;
+
+	@Value("${cache.warmer.jitter:30s}")
+	private Duration jitter;
+
+	@Value("${cache.warmer.startup-projects:}")
+	private List<String> startupProjects;
+
+	@Value("${cache.warmer.startup-max-results:200}")
+	private int startupMaxResults;
+
+	@Value("${cache.warmer.startup-timeout:2m}")
+	private Duration startupTimeout;
+
+	private Semaphore permits;
+
+	@PostConstruct
+	public void init() {
+		permits = new Semaphore(Math.max(1, maxConcurrent));
+	}
+
+	public void recordRequest(String projectKey, int maxResults) {
+		if (!enabled || !Jql.isValidProjectKey(projectKey)) {
+			return;
+		}
+		ProjectRequest request = new ProjectRequest(projectKey, maxResults);
+		AtomicLong hits = demand.get(request);
+		if (hits == null) {
+			if (demand.size() >= maxTracked) {
+				return;
+			}
+			hits = demand.computeIfAbsent(request, r -> new AtomicLong());
+		}
+		hits.incrementAndGet();
+	}
+
+	public List<ProjectRequest> hotProjects() {
+		return demand.entrySet().stream()
+				.filter(e -> e.getValue().get() > 0)
+				.sorted(Map.Entry.<ProjectRequest, AtomicLong>comparingByValue(Comparator.comparingLong(AtomicLong::get))
+						.reversed()
+						.thenComparing(e -> e.getKey().projectKey()))
+				.limit(hotProjects)
+				.map(Map.Entry::getKey)
+				.toList();
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (!enabled || startupProjects.isEmpty()) {
+			return;
+		}
+		long started = System.nanoTime();
+		List<CompletableFuture<Void>> warming = startupProjects.stream()
+				.map(String::trim)
+				.filter(projectKey -> !projectKey.isEmpty())
+				.map(projectKey -> new ProjectRequest(projectKey, startupMaxResults))
+				.map(request -> CompletableFuture.runAsync(() -> warm(request), taskExecutor))
+				.toList();
+		try {
+			CompletableFuture.allOf(warming.toArray(CompletableFuture[]::new))
+					.get(startupTimeout.toMillis(), TimeUnit.MILLISECONDS);
+			log.info("Warmed {} startup projects in {} ms", warming.size(),
+					Duration.ofNanos(System.nanoTime() - started).toMillis());
+		} catch (Exception e) {
+			log.warn("Startup warm-up of {} did not finish within {}, continuing", startupProjects, startupTimeout, e);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${cache.warmer.interval:5m}", initialDelayString = "${cache.warmer.interval:5m}")
+	public void refreshHotProjects() {
+		if (!enabled) {
+			return;
+		}
+		List<ProjectRequest> hot = hotProjects();
+		decay();
+		long jitterMillis = Math.max(1, jitter.toMillis());
+		for (ProjectRequest request : hot) {
+			if (!inFlight.add(request)) {
+				continue;
+			}
+			Instant at = Instant.now().plusMillis(ThreadLocalRandom.current().nextLong(jitterMillis));
+			taskScheduler.schedule(() -> taskExecutor.execute(() -> {
+				try {
+					warm(request);
+				} finally {
+					inFlight.remove(request);
+				}
+			}), at);
+		}
+		if (!hot.isEmpty()) {
+			log.info("Scheduled background refresh of {} hot projects: {}", hot.size(), hot);
+		}
+	}
+
+	void warm(ProjectRequest request) {
+		if (!(cacheManager.getCache("issues") instanceof CaffeineCache caffeineCache)
+				|| !(caffeineCache.getNativeCache() instanceof LoadingCache<Object, Object> cache)) {
+			return;
+		}
+		permits.acquireUninterruptibly();
+		try {
+			long started = System.nanoTime();
+			List<CompletableFuture<Object>> refreshes = new ArrayList<>(3);
+			for (String jql : List.of(Jql.closed(request.projectKey()), Jql.createdOrResolved(request.projectKey()),
+					Jql.project(request.projectKey()))) {
+				refreshes.add(cache.refresh(new IssueQuery(jql, request.maxResults())));
+			}
+			CompletableFuture.allOf(refreshes.toArray(CompletableFuture[]::new)).join();
+			log.debug("Refreshed {} in {} ms", request, Duration.ofNanos(System.nanoTime() - started).toMillis());
+		} catch (Exception e) {
+			log.warn("Background refresh of {} failed", request, e);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private void decay() {
+		demand.entrySet().removeIf(e -> e.getValue().updateAndGet(hits -> hits / 2) == 0);
+	}
+
+	public record ProjectRequest(String projectKey, int maxResults) {}
+}
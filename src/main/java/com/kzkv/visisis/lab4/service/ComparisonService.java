@@ -0,0 +1,132 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.BinCount;
+import com.kzkv.visisis.lab4.dto.ComparisonData;
+import com.kzkv.visisis.lab4.dto.ComparisonSeries;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComparisonService {
+
+	private static final Map<DashboardWidget, Function<DashboardSnapshot, List<BinCount>>> SERIES = new EnumMap<>(Map.of(
+			DashboardWidget.TIME_TO_CLOSE, DashboardSnapshot::getTimeToClose,
+			DashboardWidget.ASSIGNED_TIME, DashboardSnapshot::getInProgressTime,
+			DashboardWidget.PRIORITY, DashboardSnapshot::getPriorities
+	));
+
+	private final ProjectSnapshots projectSnapshots;
+	private final TaskExecutor taskExecutor;
+
+	@Value("${dashboard.compare.concurrency:4}")
+	private int concurrency;
+
+	@Value("${dashboard.compare.max-projects:20}")
+	private int maxProjects;
+
+	@Value("${dashboard.concurrent.page-timeout:20s}")
+	private Duration pageTimeout;
+
+	/**
+	 * Loads the projects at most {@code dashboard.compare.concurrency} at a time. The
+	 * {@code dashboard.concurrent.page-timeout} bounds the whole comparison, including the time a project waits for a
+	 * permit; every project not loaded by then is interrupted and reported as unavailable.
+	 */
+	public ComparisonData compare(List<String> projectKeys, int maxResults) {
+		if (projectKeys.isEmpty() || projectKeys.size() > maxProjects) {
+			throw new IllegalArgumentException("Expected 1 to " + maxProjects + " projects, got " + projectKeys.size());
+		}
+		projectKeys.forEach(Jql::sanitizeProjectKey);
+
+		long deadline = System.nanoTime() + pageTimeout.toNanos();
+		Semaphore permits = new Semaphore(concurrency);
+		Map<String, FutureTask<DashboardSnapshot>> tasks = new LinkedHashMap<>();
+		for (String projectKey : projectKeys) {
+			FutureTask<DashboardSnapshot> task = new FutureTask<>(() -> load(permits, projectKey, maxResults));
+			tasks.put(projectKey, task);
+			taskExecutor.execute(task);
+		}
+
+		Map<String, DashboardSnapshot> snapshots = new LinkedHashMap<>();
+		Set<String> unavailable = new LinkedHashSet<>();
+		tasks.forEach((projectKey, task) -> {
+			try {
+				snapshots.put(projectKey, task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+			} catch (TimeoutException e) {
+				task.cancel(true);
+				log.warn("Comparison of {} timed out", projectKey);
+				unavailable.add(projectKey);
+			} catch (ExecutionException e) {
+				log.error("Comparison of {} failed", projectKey, e.getCause());
+				unavailable.add(projectKey);
+			} catch (CancellationException e) {
+				unavailable.add(projectKey);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				tasks.values().forEach(pending -> pending.cancel(true));
+				unavailable.add(projectKey);
+			}
+		});
+
+		return combine(snapshots, unavailable);
+	}
+
+	static ComparisonData combine(Map<String, DashboardSnapshot> snapshots, Set<String> unavailable) {
+		DashboardSnapshot combined = null;
+		for (DashboardSnapshot snapshot : snapshots.values()) {
+			combined = combined == null ? snapshot.copy() : combined.merge(snapshot);
+		}
+		if (combined == null) {
+			combined = new DashboardSnapshot();
+		}
+
+		Map<String, ComparisonSeries> sideBySide = new LinkedHashMap<>();
+		for (Map.Entry<DashboardWidget, Function<DashboardSnapshot, List<BinCount>>> series : SERIES.entrySet()) {
+			sideBySide.put(series.getKey().getAttribute(), align(series.getValue(), combined, snapshots));
+		}
+		return new ComparisonData(List.copyOf(snapshots.keySet()), combined.toData().widgets(), sideBySide, unavailable);
+	}
+
+	private static ComparisonSeries align(Function<DashboardSnapshot, List<BinCount>> series,
+										  DashboardSnapshot combined, Map<String, DashboardSnapshot> snapshots) {
+		List<String> labels = series.apply(combined).stream().map(BinCount::bin).toList();
+		Map<String, List<Integer>> counts = new LinkedHashMap<>();
+		snapshots.forEach((projectKey, snapshot) -> {
+			Map<String, Integer> byLabel = new HashMap<>();
+			for (BinCount bin : series.apply(snapshot)) {
+				byLabel.put(bin.bin(), bin.count());
+			}
+			counts.put(projectKey, labels.stream().map(label -> byLabel.getOrDefault(label, 0)).toList());
+		});
+		return new ComparisonSeries(labels, counts);
+	}
+
+	private DashboardSnapshot load(Semaphore permits, String projectKey, int maxResults) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to load " + projectKey, e);
+		}
+		try {
+			return projectSnapshots.get(projectKey, maxResults);
+		} finally {
+			permits.release();
+		}
+	}
+}
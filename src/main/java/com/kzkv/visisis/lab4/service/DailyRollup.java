@@ -0,0 +1,325 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.aggregate.Bucketing;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Per-day partial aggregates of a project. Closed issues are attributed to their resolution day, creation and
+ * resolution counts to their own days, priorities to the creation day. A date range merges only the days inside
+ * it, so switching the window never touches the issues again.
+ * <p>
+ * A day keeps plain counters and the exact values seen on it, which for the few issues of one day is far smaller
+ * than histograms and sketches; those are only built for the merged range.
+ */
+public class DailyRollup implements IssueAggregate<DailyRollup> {
+
+	private static final String IN_PROGRESS = "In Progress";
+
+	private final Bucketing bucketing;
+	private final boolean sketches;
+	private final NavigableMap<LocalDate, Day> days;
+	private final Set<LocalDate> owned = new HashSet<>();
+
+	public DailyRollup(Bucketing bucketing, boolean sketches) {
+		this(bucketing, sketches, new TreeMap<>());
+	}
+
+	private DailyRollup(Bucketing bucketing, boolean sketches, NavigableMap<LocalDate, Day> days) {
+		this.bucketing = bucketing;
+		this.sketches = sketches;
+		this.days = days;
+	}
+
+	public static DailyRollup of(Bucketing bucketing, boolean sketches,
+								 List<Issue> closed, List<Issue> dated, List<Issue> any) {
+		DailyRollup rollup = new DailyRollup(bucketing, sketches);
+		closed.forEach(issue -> rollup.add(Source.CLOSED, issue));
+		dated.forEach(issue -> rollup.add(Source.DATED, issue));
+		any.forEach(issue -> rollup.add(Source.ANY, issue));
+		return rollup;
+	}
+
+	@Override
+	public void add(Source source, Issue issue) {
+		apply(source, issue, 1);
+	}
+
+	/**
+	 * Takes back an earlier {@link #add}; days that never saw the issue are left alone rather than created.
+	 */
+	@Override
+	public void remove(Source source, Issue issue) {
+		if (!isRetractable()) {
+			throw new IllegalStateException("Sketch aggregates cannot retract issues");
+		}
+		apply(source, issue, -1);
+	}
+
+	private void apply(Source source, Issue issue, int sign) {
+		switch (source) {
+			case CLOSED -> {
+				LocalDateTime closedAt = issue.resolved() != null ? issue.resolved() : issue.created();
+				if (closedAt != null) {
+					update(closedAt.toLocalDate(), sign, day -> day.closed(issue, sign));
+				}
+			}
+			case DATED -> {
+				if (issue.created() != null) {
+					update(issue.created().toLocalDate(), sign, day -> day.created += sign);
+				}
+				if (issue.resolved() != null) {
+					update(issue.resolved().toLocalDate(), sign, day -> day.resolved += sign);
+				}
+			}
+			case ANY -> {
+				if (issue.created() != null && issue.priority() != null) {
+					update(issue.created().toLocalDate(), sign, day -> day.priorities = count(day.priorities, issue.priority(), sign));
+				}
+			}
+		}
+	}
+
+	private void update(LocalDate date, int sign, Consumer<Day> change) {
+		Day day = days.get(date);
+		if (day == null && sign < 0) {
+			return;
+		}
+		if (day == null) {
+			day = new Day();
+			days.put(date, day);
+			owned.add(date);
+		} else if (owned.add(date)) {
+			day = day.copy();
+			days.put(date, day);
+		}
+		change.accept(day);
+		if (day.isEmpty()) {
+			days.remove(date);
+			owned.remove(date);
+		}
+	}
+
+	@Override
+	public boolean isRetractable() {
+		return !sketches;
+	}
+
+	/**
+	 * Shares every day with the copy. Whichever rollup changes a shared day first replaces it with its own copy, so
+	 * replaying a delta copies only the days it touches.
+	 */
+	@Override
+	public DailyRollup copy() {
+		owned.clear();
+		return new DailyRollup(bucketing, sketches, new TreeMap<>(days));
+	}
+
+	/**
+	 * Merges the days from {@code from} to {@code to}, both inclusive and open when {@code null}. The cumulative
+	 * daily counts include the issues created and resolved before {@code from}.
+	 */
+	public DashboardSnapshot range(LocalDate from, LocalDate to) {
+		LocalDate start = from != null ? from : LocalDate.MIN;
+		LocalDate end = to != null ? to : LocalDate.MAX;
+		if (start.isAfter(end)) {
+			throw new IllegalArgumentException("Range start " + from + " is after its end " + to);
+		}
+		DashboardSnapshot snapshot = new DashboardSnapshot(bucketing, sketches);
+		days.headMap(start, false).values().forEach(day -> snapshot.addBefore(day.created, day.resolved));
+		days.subMap(start, true, end, true).forEach((date, day) -> day.addTo(snapshot, date));
+		return snapshot;
+	}
+
+	public int size() {
+		return days.size();
+	}
+
+	private static Map<String, int[]> count(Map<String, int[]> counts, String key, int delta) {
+		Map<String, int[]> result = counts != null ? counts : new HashMap<>(4);
+		int[] count = result.computeIfAbsent(key, k -> new int[1]);
+		count[0] += delta;
+		if (count[0] == 0) {
+			result.remove(key);
+		}
+		return result.isEmpty() ? null : result;
+	}
+
+	private static Map<String, int[]> copyCounts(Map<String, int[]> counts) {
+		if (counts == null) {
+			return null;
+		}
+		Map<String, int[]> copy = new HashMap<>(counts.size() * 2);
+		counts.forEach((key, count) -> copy.put(key, count.clone()));
+		return copy;
+	}
+
+	/**
+	 * What one calendar day contributes. Maps and value lists are only allocated once the day has something to put
+	 * in them.
+	 */
+	private static final class Day {
+
+		private int created;
+		private int resolved;
+		private Map<String, int[]> priorities;
+		private Map<String, int[]> users;
+		private Map<String, Values> statusDays;
+		private Values timeToClose;
+		private Values inProgressDays;
+		private Values inProgressSeconds;
+
+		void closed(Issue issue, int sign) {
+			if (issue.reporter() != null) {
+				users = count(users, issue.reporter(), sign);
+			}
+			if (issue.assignee() != null) {
+				users = count(users, issue.assignee(), sign);
+			}
+			for (StatusDuration duration : issue.statusDurations()) {
+				if (duration.status() == null) {
+					continue;
+				}
+				if (statusDays == null) {
+					statusDays = new HashMap<>(8);
+				}
+				Values values = statusDays.computeIfAbsent(duration.status(), s -> new Values());
+				values.add(duration.days(), sign);
+				if (values.isEmpty()) {
+					statusDays.remove(duration.status());
+				}
+			}
+			if (issue.resolved() == null) {
+				return;
+			}
+			if (issue.created() != null) {
+				timeToClose = Values.add(timeToClose, Duration.between(issue.created(), issue.resolved()).toSeconds(), sign);
+			}
+			for (StatusDuration duration : issue.statusDurations()) {
+				if (IN_PROGRESS.equals(duration.status())) {
+					inProgressDays = Values.add(inProgressDays, duration.days(), sign);
+					inProgressSeconds = Values.add(inProgressSeconds, DashboardSnapshot.inProgressSeconds(issue), sign);
+					break;
+				}
+			}
+		}
+
+		boolean isEmpty() {
+			return created == 0 && resolved == 0 && priorities == null && users == null
+					&& (statusDays == null || statusDays.isEmpty())
+					&& timeToClose == null && inProgressDays == null && inProgressSeconds == null;
+		}
+
+		void addTo(DashboardSnapshot snapshot, LocalDate date) {
+			snapshot.addDay(date, created, resolved);
+			if (priorities != null) {
+				priorities.forEach((priority, count) -> snapshot.addPriority(priority, count[0]));
+			}
+			if (users != null) {
+				users.forEach((user, count) -> snapshot.countUser(user, count[0]));
+			}
+			if (statusDays != null) {
+				statusDays.forEach((status, values) -> {
+					for (int i = 0; i < values.size; i++) {
+						snapshot.addStatusTime(status, values.values[i], values.counts[i]);
+					}
+				});
+			}
+			if (timeToClose != null) {
+				for (int i = 0; i < timeToClose.size; i++) {
+					snapshot.addTimeToClose(timeToClose.values[i], timeToClose.counts[i]);
+				}
+			}
+			if (inProgressDays != null) {
+				for (int i = 0; i < inProgressDays.size; i++) {
+					snapshot.addInProgressDays(inProgressDays.values[i], inProgressDays.counts[i]);
+				}
+			}
+			if (inProgressSeconds != null) {
+				for (int i = 0; i < inProgressSeconds.size; i++) {
+					snapshot.addInProgressSeconds(inProgressSeconds.values[i], inProgressSeconds.counts[i]);
+				}
+			}
+		}
+
+		Day copy() {
+			Day copy = new Day();
+			copy.created = created;
+			copy.resolved = resolved;
+			copy.priorities = copyCounts(priorities);
+			copy.users = copyCounts(users);
+			if (statusDays != null) {
+				copy.statusDays = new HashMap<>(statusDays.size() * 2);
+				statusDays.forEach((status, values) -> copy.statusDays.put(status, values.copy()));
+			}
+			copy.timeToClose = timeToClose == null ? null : timeToClose.copy();
+			copy.inProgressDays = inProgressDays == null ? null : inProgressDays.copy();
+			copy.inProgressSeconds = inProgressSeconds == null ? null : inProgressSeconds.copy();
+			return copy;
+		}
+	}
+
+	/**
+	 * Sorted distinct values with how often each was seen.
+	 */
+	private static final class Values {
+
+		private long[] values = new long[2];
+		private int[] counts = new int[2];
+		private int size;
+
+		static Values add(Values values, long value, int delta) {
+			Values result = values != null ? values : new Values();
+			result.add(value, delta);
+			return result.isEmpty() ? null : result;
+		}
+
+		void add(long value, int delta) {
+			int index = Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				counts[index] += delta;
+				if (counts[index] == 0) {
+					System.arraycopy(values, index + 1, values, index, size - index - 1);
+					System.arraycopy(counts, index + 1, counts, index, size - index - 1);
+					size--;
+				}
+				return;
+			}
+			int at = -index - 1;
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+				counts = Arrays.copyOf(counts, size * 2);
+			}
+			System.arraycopy(values, at, values, at + 1, size - at);
+			System.arraycopy(counts, at, counts, at + 1, size - at);
+			values[at] = value;
+			counts[at] = delta;
+			size++;
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		Values copy() {
+			Values copy = new Values();
+			copy.values = Arrays.copyOf(values, values.length);
+			copy.counts = Arrays.copyOf(counts, counts.length);
+			copy.size = size;
+			return copy;
+		}
+	}
+}
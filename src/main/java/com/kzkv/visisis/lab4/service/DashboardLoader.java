@@ -0,0 +1,153 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.DashboardData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs the widgets of one page concurrently. A widget is cancelled, interrupting its thread, once it has run for
+ * {@code dashboard.concurrent.widget-timeout} or when {@code dashboard.concurrent.page-timeout} has passed since
+ * the page was started, whichever comes first, and is then rendered as unavailable.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardLoader {
+
+	private final DashboardService dashboardService;
+	private final TaskExecutor taskExecutor;
+
+	@Value("${dashboard.concurrent.page-timeout:20s}")
+	private Duration pageTimeout;
+
+	@Value("${dashboard.concurrent.widget-timeout:15s}")
+	private Duration widgetTimeout;
+
+	Map<DashboardWidget, WidgetTask> start(String projectKey, int maxResults) {
+		Map<DashboardWidget, WidgetTask> tasks = new EnumMap<>(DashboardWidget.class);
+		for (DashboardWidget widget : DashboardWidget.values()) {
+			WidgetTask task = new WidgetTask(() -> widget.load(dashboardService, projectKey, maxResults));
+			tasks.put(widget, task);
+			task.expireAfter(pageTimeout);
+			taskExecutor.execute(task);
+		}
+		return tasks;
+	}
+
+	public CompletableFuture<Void> stream(String projectKey, int maxResults,
+										  BiConsumer<DashboardWidget, Object> onReady, Consumer<DashboardWidget> onUnavailable) {
+		Map<DashboardWidget, WidgetTask> tasks = start(projectKey, maxResults);
+		List<CompletableFuture<Void>> delivered = new ArrayList<>(tasks.size());
+
+		tasks.forEach((widget, task) -> delivered.add(task.result
+				.handle((value, error) -> {
+					if (error == null) {
+						onReady.accept(widget, value);
+						return null;
+					}
+					logUnavailable(widget, projectKey, error);
+					onUnavailable.accept(widget);
+					return null;
+				})));
+
+		CompletableFuture<Void> all = CompletableFuture.allOf(delivered.toArray(CompletableFuture[]::new));
+		all.whenComplete((ignored, error) -> {
+			if (all.isCancelled()) {
+				tasks.values().forEach(task -> task.cancel(true));
+			}
+		});
+		return all;
+	}
+
+	public DashboardData load(String projectKey, int maxResults) {
+		long started = System.nanoTime();
+		Map<String, Object> widgets = new LinkedHashMap<>();
+		Set<String> unavailable = new LinkedHashSet<>();
+
+		Map<DashboardWidget, WidgetTask> tasks = start(projectKey, maxResults);
+		for (Map.Entry<DashboardWidget, WidgetTask> entry : tasks.entrySet()) {
+			DashboardWidget widget = entry.getKey();
+			try {
+				widgets.put(widget.getAttribute(), entry.getValue().result.get());
+				continue;
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IllegalArgumentException illegalArgument) {
+					throw illegalArgument;
+				}
+				logUnavailable(widget, projectKey, e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				tasks.values().forEach(task -> task.cancel(true));
+			}
+			widgets.put(widget.getAttribute(), widget.getFallback());
+			unavailable.add(widget.getAttribute());
+		}
+
+		log.info("Dashboard for {} loaded in {} ms, unavailable={}",
+				projectKey, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), unavailable);
+		return new DashboardData(widgets, unavailable);
+	}
+
+	private static void logUnavailable(DashboardWidget widget, String projectKey, Throwable error) {
+		if (error instanceof TimeoutException) {
+			log.warn("Widget {} for {} timed out", widget, projectKey);
+		} else if (error instanceof CancellationException) {
+			log.warn("Widget {} for {} was cancelled", widget, projectKey);
+		} else {
+			log.error("Widget {} for {} failed", widget, projectKey, error);
+		}
+	}
+
+	/**
+	 * A widget computation that can be interrupted, with its outcome mirrored into {@link #result}: the value, the
+	 * widget's exception, a {@link TimeoutException} when a deadline cancelled it, or a {@link CancellationException}.
+	 */
+	final class WidgetTask extends FutureTask<Object> {
+
+		final CompletableFuture<Object> result = new CompletableFuture<>();
+		private volatile boolean timedOut;
+
+		private WidgetTask(Callable<Object> computation) {
+			super(computation);
+		}
+
+		@Override
+		public void run() {
+			expireAfter(widgetTimeout);
+			super.run();
+		}
+
+		private void expireAfter(Duration timeout) {
+			CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+				if (!isDone()) {
+					timedOut = true;
+					cancel(true);
+				}
+			});
+		}
+
+		@Override
+		protected void done() {
+			switch (state()) {
+				case SUCCESS -> result.complete(resultNow());
+				case FAILED -> result.completeExceptionally(exceptionNow());
+				default -> result.completeExceptionally(timedOut ? new TimeoutException() : new CancellationException());
+			}
+		}
+	}
+}
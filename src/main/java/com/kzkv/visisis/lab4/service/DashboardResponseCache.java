@@ -0,0 +1,151 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kzkv.visisis.lab4.dto.DashboardData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Component
+public class DashboardResponseCache {
+
+	private final ProjectSnapshots projectSnapshots;
+	private final ObjectMapper objectMapper;
+	private final Cache<Key, Entry> entries;
+
+	public DashboardResponseCache(ProjectSnapshots projectSnapshots, ObjectMapper objectMapper,
+								  @Value("${dashboard.api.max-entries:256}") long maxEntries) {
+		this.projectSnapshots = projectSnapshots;
+		this.objectMapper = objectMapper;
+		this.entries = Caffeine.newBuilder().maximumSize(maxEntries).build();
+	}
+
+	public Body dashboard(String projectKey, int maxResults) {
+		return dashboard(projectKey, maxResults, null, null);
+	}
+
+	public Body widget(String projectKey, int maxResults, DashboardWidget widget) {
+		return widget(projectKey, maxResults, widget, null, null);
+	}
+
+	public Body dashboard(String projectKey, int maxResults, LocalDate from, LocalDate to) {
+		return current(new Key(projectKey, maxResults, from, to)).dashboard();
+	}
+
+	public Body widget(String projectKey, int maxResults, DashboardWidget widget, LocalDate from, LocalDate to) {
+		return current(new Key(projectKey, maxResults, from, to)).widgets().get(widget);
+	}
+
+	/**
+	 * Serialized responses are kept per project and date range, and reused for as long as the aggregate they were
+	 * rendered from is still current: the snapshot for the whole project, the daily rollup for a range.
+	 */
+	private Entry current(Key key) {
+		IssueAggregate<?> source = key.isRange()
+				? projectSnapshots.rollup(key.projectKey(), key.maxResults())
+				: projectSnapshots.get(key.projectKey(), key.maxResults());
+
+		Entry entry = entries.getIfPresent(key);
+		if (entry != null && entry.source() == source) {
+			return entry;
+		}
+		return entries.asMap().compute(key, (k, existing) ->
+				existing != null && existing.source() == source ? existing : build(k, source));
+	}
+
+	private Entry build(Key key, IssueAggregate<?> source) {
+		long started = System.nanoTime();
+		DashboardSnapshot snapshot = source instanceof DailyRollup rollup
+				? rollup.range(key.from(), key.to())
+				: (DashboardSnapshot) source;
+		DashboardData data = snapshot.toData();
+
+		Map<String, Object> document = new LinkedHashMap<>();
+		document.put("projectKey", key.projectKey());
+		if (key.isRange()) {
+			document.put("from", key.from());
+			document.put("to", key.to());
+		}
+		document.put("widgets", data.widgets());
+
+		Map<DashboardWidget, Body> widgets = new EnumMap<>(DashboardWidget.class);
+		for (DashboardWidget widget : DashboardWidget.values()) {
+			widgets.put(widget, body(data.widgets().get(widget.getAttribute())));
+		}
+		Entry entry = new Entry(source, body(document), widgets);
+		log.debug("Serialized dashboard for {} in {} µs, etag={}",
+				key, (System.nanoTime() - started) / 1_000, entry.dashboard().etag());
+		return entry;
+	}
+
+	private Body body(Object value) {
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(value);
+			return new Body(etag(json), json, gzip(json));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot serialize dashboard", e);
+		}
+	}
+
+	private static String etag(byte[] json) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+			return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] gzip(byte[] json) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(json);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public record Body(String etag, byte[] json, byte[] gzip) {
+
+		public boolean matches(String ifNoneMatch) {
+			if (ifNoneMatch == null) {
+				return false;
+			}
+			String opaque = etag.substring(2);
+			for (String candidate : ifNoneMatch.split(",")) {
+				String tag = candidate.trim();
+				if (tag.equals("*") || tag.equals(etag) || tag.equals(opaque)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private record Key(String projectKey, int maxResults, LocalDate from, LocalDate to) {
+
+		boolean isRange() {
+			return from != null || to != null;
+		}
+	}
+
+	private record Entry(IssueAggregate<?> source, Body dashboard, Map<DashboardWidget, Body> widgets) {
+	}
+}
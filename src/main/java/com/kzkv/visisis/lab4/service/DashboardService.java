@@ -2,10 +2,14 @@ package com.kzkv.visisis.lab4.service;
 
 import com.kzkv.visisis.lab4.dto.BinCount;
 import com.kzkv.visisis.lab4.dto.DailyStats;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.Percentiles;
 import com.kzkv.visisis.lab4.dto.UserCount;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public interface DashboardService {
 
@@ -21,4 +25,16 @@ public interface DashboardService {
 
 	List<BinCount> getIssuesByPriority(String projectKey, int maxResults);
 
+	Map<String, Percentiles> getPercentiles(String projectKey, int maxResults);
+
+	DashboardSnapshot getSnapshot(String projectKey, int maxResults);
+
+	DashboardSnapshot getSnapshot(List<Issue> closed, List<Issue> dated, List<Issue> any);
+
+	DailyRollup getRollup(String projectKey, int maxResults);
+
+	DailyRollup getRollup(List<Issue> closed, List<Issue> dated, List<Issue> any);
+
+	Optional<Instant> staleSince(String projectKey, int maxResults);
+
 }
@@ -1,14 +1,20 @@
 package com.kzkv.visisis.lab4.service;
 
+import com.kzkv.visisis.lab4.aggregate.Bucketing;
+import com.kzkv.visisis.lab4.columnar.IssueTable;
 import com.kzkv.visisis.lab4.dto.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.time.LocalDate;
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 @Slf4j
@@ -18,155 +24,133 @@ public class DashboardServiceImpl implements DashboardService {
 
 	private final IssueService issueService;
 
+	private Bucketing bucketing = Bucketing.identity();
+	private boolean sketches;
+	private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+	@Value("${dashboard.histogram.bucketing:identity}")
+	public void setBucketing(String bucketing) {
+		this.bucketing = Bucketing.parse(bucketing);
+	}
+
+	@Value("${dashboard.aggregation:exact}")
+	public void setAggregation(String aggregation) {
+		this.sketches = switch (aggregation.trim().toLowerCase()) {
+			case "exact" -> false;
+			case "sketch" -> true;
+			default -> throw new IllegalArgumentException("Unknown aggregation: " + aggregation);
+		};
+	}
+
+	@Autowired(required = false)
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
 	@Override
 	public List<BinCount> getIssuesByOpenedTime(String projectKey, int maxResults) {
-		String jql = "project = \"" + sanitizeProjectKey(projectKey) + "\" AND status = Closed";
-		List<Issue> issues = issueService.getIssues(jql, maxResults);
-
-		return issues.stream()
-				.filter(issue -> issue.resolved() != null)
-				.map(issue -> Duration.between(issue.created(), issue.resolved()).toDays())
-				.collect(Collectors.groupingBy(
-						days -> days,
-						Collectors.counting()
-				))
-				.entrySet().stream()
-				.map(e -> new BinCount(e.getKey().toString(), e.getValue().intValue()))
-				.toList();
+		List<Issue> issues = issueService.getIssues(Jql.closed(projectKey), maxResults);
+		return timed("time_to_close", () -> closed(issues).getTimeToClose());
 	}
 
 	@Override
 	public Map<String, List<BinCount>> getStatusTimeDistribution(String projectKey, int maxResults) {
-		String jql = "project = \"" + sanitizeProjectKey(projectKey) + "\" AND status = Closed";
-		List<Issue> issues = issueService.getIssues(jql, maxResults);
-
-		List<StatusDuration> allDurations = issues.stream()
-				.flatMap(issue -> issue.statusDurations().stream())
-				.toList();
-
-		return allDurations.stream()
-				.collect(Collectors.groupingBy(
-						StatusDuration::status,
-						Collectors.groupingBy(
-								d -> String.valueOf(d.days()),
-								TreeMap::new,
-								Collectors.counting()
-						)
-				))
-				.entrySet().stream()
-				.collect(Collectors.toMap(
-						Map.Entry::getKey,
-						e -> e.getValue().entrySet().stream()
-								.map(entry -> new BinCount(entry.getKey(), entry.getValue().intValue()))
-								.toList()
-				));
+		List<Issue> issues = issueService.getIssues(Jql.closed(projectKey), maxResults);
+		return timed("status_time", () -> closed(issues).getStatusTime());
 	}
 
 	@Override
 	public List<DailyStats> getDailyTaskStats(String projectKey, int maxResults) {
-		String jql = "project = \"" + sanitizeProjectKey(projectKey) + "\" AND (created IS NOT NULL OR resolutiondate IS NOT NULL)";
-		List<Issue> issues = issueService.getIssues(jql, maxResults);
-
-		Map<LocalDate, Integer> createdMap = new TreeMap<>();
-		Map<LocalDate, Integer> resolvedMap = new TreeMap<>();
-
-		for (Issue issue : issues) {
-			if (issue.created() != null) {
-				LocalDate day = issue.created().toLocalDate();
-				createdMap.merge(day, 1, Integer::sum);
-			}
-			if (issue.resolved() != null) {
-				LocalDate day = issue.resolved().toLocalDate();
-				resolvedMap.merge(day, 1, Integer::sum);
-			}
-		}
-
-		if (createdMap.isEmpty() && resolvedMap.isEmpty()) {
-			return List.of();
-		}
-
-		LocalDate start = Stream.concat(createdMap.keySet().stream(), resolvedMap.keySet().stream())
-				.min(LocalDate::compareTo).orElse(LocalDate.now().minusMonths(1));
-		LocalDate end = Stream.concat(createdMap.keySet().stream(), resolvedMap.keySet().stream())
-				.max(LocalDate::compareTo).orElse(LocalDate.now());
-
-		List<DailyStats> result = new ArrayList<>();
-		int cumCreated = 0, cumResolved = 0;
-
-		for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-			int created = createdMap.getOrDefault(date, 0);
-			int resolved = resolvedMap.getOrDefault(date, 0);
-			cumCreated += created;
-			cumResolved += resolved;
-			result.add(new DailyStats(date, created, resolved, cumCreated, cumResolved));
-		}
-
-		return result;
+		List<Issue> issues = issueService.getIssues(Jql.createdOrResolved(projectKey), maxResults);
+		return timed("daily_stats", () -> {
+			DashboardSnapshot snapshot = new DashboardSnapshot(bucketing, sketches);
+			snapshot.addDated(issues);
+			return snapshot.getDailyStats();
+		});
 	}
 
 	@Override
 	public List<UserCount> getTopUsers(String projectKey, int maxResults) {
-		String jql = "project = \"" + sanitizeProjectKey(projectKey) + "\" AND status = Closed";
-		List<Issue> issues = issueService.getIssues(jql, maxResults);
-
-		Map<String, Integer> userCounts = new HashMap<>();
-		for (Issue issue : issues) {
-			if (issue.reporter() != null) {
-				userCounts.merge(issue.reporter(), 1, Integer::sum);
-			}
-			if (issue.assignee() != null) {
-				userCounts.merge(issue.assignee(), 1, Integer::sum);
-			}
-		}
-
-		return userCounts.entrySet().stream()
-				.sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-				.limit(30)
-				.map(e -> new UserCount(e.getKey(), e.getValue()))
-				.toList();
+		List<Issue> issues = issueService.getIssues(Jql.closed(projectKey), maxResults);
+		return timed("top_users", () -> closed(issues).getTopUsers());
 	}
 
 	@Override
 	public List<BinCount> getAssignedIssuesTimeDistribution(String projectKey, int maxResults) {
-		String jql = "project = \"" + sanitizeProjectKey(projectKey) + "\" AND status = Closed";
-		List<Issue> issues = issueService.getIssues(jql, maxResults);
-
-		return issues.stream()
-				.filter(issue -> issue.resolved() != null && issue.statusDurations().stream().anyMatch(statusDuration -> statusDuration.status().equals("In Progress")))
-				.map(issue -> issue.statusDurations().stream()
-						.filter(statusDuration -> statusDuration.status().equals("In Progress"))
-						.findFirst()
-						.map(StatusDuration::days)
-						.orElse(0L))
-				.collect(Collectors.groupingBy(
-						days -> days,
-						Collectors.counting()
-				))
-				.entrySet().stream()
-				.map(e -> new BinCount(e.getKey().toString(), e.getValue().intValue()))
-				.toList();
+		List<Issue> issues = issueService.getIssues(Jql.closed(projectKey), maxResults);
+		return timed("assigned_time", () -> closed(issues).getInProgressTime());
 	}
 
 	@Override
 	public List<BinCount> getIssuesByPriority(String projectKey, int maxResults) {
-		String jql = "project = \"" + sanitizeProjectKey(projectKey) + "\"";
-		List<Issue> issues = issueService.getIssues(jql, maxResults);
-
-		return issues.stream()
-				.filter(i -> i.priority() != null)
-				.collect(Collectors.groupingBy(
-						Issue::priority,
-						Collectors.counting()
-				))
-				.entrySet().stream()
-				.map(e -> new BinCount(e.getKey(), e.getValue().intValue()))
-				.toList();
-	}
-
-	private String sanitizeProjectKey(String key) {
-		if (!key.matches("[A-Za-z0-9_-]+")) {
-			throw new IllegalArgumentException("Invalid project key: " + key);
-		}
-		return key;
+		List<Issue> issues = issueService.getIssues(Jql.project(projectKey), maxResults);
+		return timed("priority", () -> {
+			DashboardSnapshot snapshot = new DashboardSnapshot(bucketing, sketches);
+			snapshot.addAny(issues);
+			return snapshot.getPriorities();
+		});
+	}
+
+	@Override
+	public Map<String, Percentiles> getPercentiles(String projectKey, int maxResults) {
+		List<Issue> issues = issueService.getIssues(Jql.closed(projectKey), maxResults);
+		return timed("percentiles", () -> closed(issues).getPercentiles());
+	}
+
+	@Override
+	public DashboardSnapshot getSnapshot(String projectKey, int maxResults) {
+		return getSnapshot(
+				issueService.getIssues(Jql.closed(projectKey), maxResults),
+				issueService.getIssues(Jql.createdOrResolved(projectKey), maxResults),
+				issueService.getIssues(Jql.project(projectKey), maxResults));
+	}
+
+	@Override
+	public DashboardSnapshot getSnapshot(List<Issue> closed, List<Issue> dated, List<Issue> any) {
+		return timed("snapshot", () -> {
+			DashboardSnapshot snapshot = new DashboardSnapshot(bucketing, sketches);
+			snapshot.addClosed(closed);
+			snapshot.addDated(dated);
+			snapshot.addAny(any);
+			return snapshot;
+		});
+	}
+
+	@Override
+	public DailyRollup getRollup(String projectKey, int maxResults) {
+		return getRollup(
+				issueService.getIssues(Jql.closed(projectKey), maxResults),
+				issueService.getIssues(Jql.createdOrResolved(projectKey), maxResults),
+				issueService.getIssues(Jql.project(projectKey), maxResults));
+	}
+
+	@Override
+	public DailyRollup getRollup(List<Issue> closed, List<Issue> dated, List<Issue> any) {
+		return timed("rollup", () -> DailyRollup.of(bucketing, sketches, closed, dated, any));
+	}
+
+	@Override
+	public Optional<Instant> staleSince(String projectKey, int maxResults) {
+		return Stream.of(Jql.closed(projectKey), Jql.createdOrResolved(projectKey), Jql.project(projectKey))
+				.map(jql -> issueService.staleSince(jql, maxResults))
+				.flatMap(Optional::stream)
+				.min(Comparator.naturalOrder());
+	}
+
+	/**
+	 * Aggregates closed issues the way a snapshot does, so an {@link IssueTable} is
+	 * read column by column instead of materialising an {@link Issue} per row.
+	 */
+	private DashboardSnapshot closed(List<Issue> issues) {
+		DashboardSnapshot snapshot = new DashboardSnapshot(bucketing, sketches);
+		snapshot.addClosed(issues);
+		return snapshot;
+	}
+
+	private <T> T timed(String widget, Supplier<T> aggregation) {
+		return Timer.builder("dashboard.widget")
+				.tag("widget", widget)
+				.register(meterRegistry)
+				.record(aggregation);
 	}
 }
\ No newline at end of file
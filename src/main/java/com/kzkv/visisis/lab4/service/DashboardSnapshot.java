@@ -0,0 +1,467 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.aggregate.Bucketing;
+import com.kzkv.visisis.lab4.aggregate.DayHistogram;
+import com.kzkv.visisis.lab4.aggregate.QuantileSketch;
+import com.kzkv.visisis.lab4.aggregate.TopKSketch;
+import com.kzkv.visisis.lab4.columnar.Dictionary;
+import com.kzkv.visisis.lab4.columnar.IssueTable;
+import com.kzkv.visisis.lab4.dto.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+public class DashboardSnapshot implements IssueAggregate<DashboardSnapshot> {
+
+	private static final String IN_PROGRESS = "In Progress";
+	private static final int TOP_USERS_LIMIT = 30;
+	private static final long SECONDS_PER_DAY = 86_400;
+	private static final int TOP_USERS_CAPACITY = 512;
+
+	private final Bucketing bucketing;
+	private final boolean sketches;
+	private final DayHistogram timeToClose = new DayHistogram();
+	private final Map<String, DayHistogram> statusTime = new HashMap<>();
+	private final DayHistogram inProgressTime = new DayHistogram();
+	private final Map<String, int[]> users = new HashMap<>();
+	private final TreeMap<LocalDate, int[]> daily = new TreeMap<>();
+	private final Map<String, int[]> priorities = new HashMap<>();
+	private final QuantileSketch timeToCloseSeconds = new QuantileSketch();
+	private final QuantileSketch inProgressSeconds = new QuantileSketch();
+	private TopKSketch topUsers;
+	private int createdBefore;
+	private int resolvedBefore;
+
+	public DashboardSnapshot() {
+		this(Bucketing.identity());
+	}
+
+	public DashboardSnapshot(Bucketing bucketing) {
+		this(bucketing, false);
+	}
+
+	/**
+	 * @param sketches keep users in a bounded top-K sketch and derive the time histograms from quantile sketches
+	 *                 instead of exact per-day counts
+	 */
+	public DashboardSnapshot(Bucketing bucketing, boolean sketches) {
+		this.bucketing = bucketing;
+		this.sketches = sketches;
+	}
+
+	public void addClosed(List<Issue> issues) {
+		if (issues instanceof IssueTable table) {
+			addClosed(table);
+		} else {
+			issues.forEach(this::addClosed);
+		}
+	}
+
+	public void addDated(List<Issue> issues) {
+		if (issues instanceof IssueTable table) {
+			addDated(table);
+		} else {
+			issues.forEach(this::addDated);
+		}
+	}
+
+	public void addAny(List<Issue> issues) {
+		if (issues instanceof IssueTable table) {
+			addAny(table);
+		} else {
+			issues.forEach(this::addAny);
+		}
+	}
+
+	@Override
+	public void add(Source source, Issue issue) {
+		apply(source, issue, 1);
+	}
+
+	@Override
+	public void remove(Source source, Issue issue) {
+		if (!isRetractable()) {
+			throw new IllegalStateException("Sketch aggregates cannot retract issues");
+		}
+		apply(source, issue, -1);
+	}
+
+	@Override
+	public boolean isRetractable() {
+		return !sketches;
+	}
+
+	private void apply(Source source, Issue issue, int sign) {
+		switch (source) {
+			case CLOSED -> closed(issue, sign);
+			case DATED -> dated(issue, sign);
+			case ANY -> any(issue, sign);
+		}
+	}
+
+	public void addClosed(Issue issue) {
+		closed(issue, 1);
+	}
+
+	private void closed(Issue issue, int sign) {
+		if (issue.reporter() != null) {
+			countUser(issue.reporter(), sign);
+		}
+		if (issue.assignee() != null) {
+			countUser(issue.assignee(), sign);
+		}
+		for (StatusDuration duration : issue.statusDurations()) {
+			DayHistogram histogram = statusTime.computeIfAbsent(duration.status(), s -> new DayHistogram());
+			histogram.add(duration.days(), sign);
+			if (sign < 0 && histogram.isEmpty()) {
+				statusTime.remove(duration.status());
+			}
+		}
+		if (issue.resolved() == null) {
+			return;
+		}
+		if (issue.created() != null) {
+			long seconds = Duration.between(issue.created(), issue.resolved()).toSeconds();
+			addTimeToClose(seconds, sign);
+		}
+		for (StatusDuration duration : issue.statusDurations()) {
+			if (IN_PROGRESS.equals(duration.status())) {
+				addInProgress(duration.days(), inProgressSeconds(issue), sign);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Seconds the issue spent "In Progress", or -1 if its durations have no such status.
+	 */
+	static long inProgressSeconds(Issue issue) {
+		for (StatusDuration duration : issue.statusDurations()) {
+			if (IN_PROGRESS.equals(duration.status())) {
+				return issue.timeline().size() > 0 ? issue.timeline().secondsIn(IN_PROGRESS) : duration.days() * SECONDS_PER_DAY;
+			}
+		}
+		return -1;
+	}
+
+	private static Percentiles percentiles(QuantileSketch sketch) {
+		double day = SECONDS_PER_DAY;
+		return new Percentiles(sketch.count(),
+				sketch.quantile(0.5) / day, sketch.quantile(0.9) / day, sketch.quantile(0.99) / day);
+	}
+
+	private static List<BinCount> toBins(QuantileSketch sketch, Bucketing bucketing) {
+		DayHistogram histogram = new DayHistogram();
+		sketch.forEachBucket((seconds, count) -> histogram.add(seconds / SECONDS_PER_DAY, (int) count));
+		return histogram.toBins(bucketing);
+	}
+
+	public void addDated(Issue issue) {
+		dated(issue, 1);
+	}
+
+	private void dated(Issue issue, int sign) {
+		if (issue.created() != null) {
+			countDay(issue.created().toLocalDate(), 0, sign);
+		}
+		if (issue.resolved() != null) {
+			countDay(issue.resolved().toLocalDate(), 1, sign);
+		}
+	}
+
+	/**
+	 * Adds {@code created} and {@code resolved} issues on {@code day}, e.g. from a day of a {@link DailyRollup}.
+	 */
+	void addDay(LocalDate day, int created, int resolved) {
+		if (created != 0) {
+			countDay(day, 0, created);
+		}
+		if (resolved != 0) {
+			countDay(day, 1, resolved);
+		}
+	}
+
+	/**
+	 * Adds {@code created} and {@code resolved} issues from before the first counted day, so the cumulative daily
+	 * counts of a date range continue from the project's history instead of starting at zero.
+	 */
+	void addBefore(int created, int resolved) {
+		createdBefore += created;
+		resolvedBefore += resolved;
+	}
+
+	private void countDay(LocalDate day, int column, int delta) {
+		int[] counts = daily.computeIfAbsent(day, d -> new int[2]);
+		counts[column] += delta;
+		if (counts[0] == 0 && counts[1] == 0) {
+			daily.remove(day);
+		}
+	}
+
+	public void addAny(Issue issue) {
+		any(issue, 1);
+	}
+
+	private void any(Issue issue, int sign) {
+		if (issue.priority() != null) {
+			increment(priorities, issue.priority(), sign);
+		}
+	}
+
+	private void addClosed(IssueTable table) {
+		int[] userCounts = new int[table.users().size()];
+		int inProgress = table.statuses().lookup(IN_PROGRESS);
+		DayHistogram[] statusBins = new DayHistogram[table.statuses().size()];
+		int[] codes = new int[table.statuses().size()];
+		long[] days = new long[codes.length];
+
+		for (int row = 0; row < table.size(); row++) {
+			if (table.reporter(row) != Dictionary.NULL) {
+				userCounts[table.reporter(row)]++;
+			}
+			if (table.assignee(row) != Dictionary.NULL) {
+				userCounts[table.assignee(row)]++;
+			}
+			long inProgressDays = -1;
+			int count = table.durations(row, codes, days);
+			for (int i = 0; i < count; i++) {
+				int status = codes[i];
+				if (statusBins[status] == null) {
+					statusBins[status] = statusTime.computeIfAbsent(table.statuses().decode(status), s -> new DayHistogram());
+				}
+				statusBins[status].add(days[i]);
+				if (status == inProgress) {
+					inProgressDays = days[i];
+				}
+			}
+			if (table.resolved(row) == IssueTable.NO_TIME) {
+				continue;
+			}
+			if (table.created(row) != IssueTable.NO_TIME) {
+				long seconds = table.resolved(row) - table.created(row);
+				addTimeToClose(seconds, 1);
+			}
+			if (inProgressDays >= 0) {
+				addInProgress(inProgressDays, secondsIn(table, row, inProgress), 1);
+			}
+		}
+
+		for (int code = 0; code < userCounts.length; code++) {
+			if (userCounts[code] > 0) {
+				countUser(table.users().decode(code), userCounts[code]);
+			}
+		}
+	}
+
+	private static long secondsIn(IssueTable table, int row, int status) {
+		long seconds = 0;
+		for (int t = table.timelineStart(row); t < table.timelineEnd(row); t++) {
+			if (table.timelineStatus(t) == status) {
+				seconds += table.timelineExit(t) - table.timelineEnter(t);
+			}
+		}
+		return seconds;
+	}
+
+	void addTimeToClose(long seconds, int count) {
+		if (!sketches) {
+			timeToClose.add(seconds / SECONDS_PER_DAY, count);
+		}
+		count(timeToCloseSeconds, Math.max(0, seconds), count);
+	}
+
+	private void addInProgress(long days, long seconds, int sign) {
+		addInProgressDays(days, sign);
+		addInProgressSeconds(seconds, sign);
+	}
+
+	void addInProgressDays(long days, int count) {
+		if (!sketches) {
+			inProgressTime.add(days, count);
+		}
+	}
+
+	void addInProgressSeconds(long seconds, int count) {
+		count(inProgressSeconds, Math.max(0, seconds), count);
+	}
+
+	void addStatusTime(String status, long days, int count) {
+		statusTime.computeIfAbsent(status, s -> new DayHistogram()).add(days, count);
+	}
+
+	void addPriority(String priority, int count) {
+		increment(priorities, priority, count);
+	}
+
+	private static void count(QuantileSketch sketch, long seconds, int count) {
+		if (count > 0) {
+			sketch.add(seconds, count);
+		}
+		for (int i = count; i < 0; i++) {
+			sketch.remove(seconds);
+		}
+	}
+
+	void countUser(String user, int count) {
+		if (sketches) {
+			if (topUsers == null) {
+				topUsers = new TopKSketch(TOP_USERS_CAPACITY);
+			}
+			topUsers.add(user, count);
+		} else {
+			increment(users, user, count);
+		}
+	}
+
+	private void addDated(IssueTable table) {
+		for (int row = 0; row < table.size(); row++) {
+			if (table.created(row) != IssueTable.NO_TIME) {
+				daily.computeIfAbsent(toDate(table.created(row)), d -> new int[2])[0]++;
+			}
+			if (table.resolved(row) != IssueTable.NO_TIME) {
+				daily.computeIfAbsent(toDate(table.resolved(row)), d -> new int[2])[1]++;
+			}
+		}
+	}
+
+	private void addAny(IssueTable table) {
+		int[] counts = new int[table.priorities().size()];
+		for (int row = 0; row < table.size(); row++) {
+			if (table.priority(row) != Dictionary.NULL) {
+				counts[table.priority(row)]++;
+			}
+		}
+		for (int code = 0; code < counts.length; code++) {
+			if (counts[code] > 0) {
+				increment(priorities, table.priorities().decode(code), counts[code]);
+			}
+		}
+	}
+
+	@Override
+	public DashboardSnapshot copy() {
+		return new DashboardSnapshot(bucketing, sketches).merge(this);
+	}
+
+	public DashboardSnapshot merge(DashboardSnapshot other) {
+		timeToClose.merge(other.timeToClose);
+		timeToCloseSeconds.merge(other.timeToCloseSeconds);
+		other.statusTime.forEach((status, histogram) ->
+				statusTime.computeIfAbsent(status, s -> new DayHistogram()).merge(histogram));
+		inProgressTime.merge(other.inProgressTime);
+		inProgressSeconds.merge(other.inProgressSeconds);
+		other.users.forEach((user, count) -> countUser(user, count[0]));
+		if (other.topUsers != null) {
+			if (sketches) {
+				if (topUsers == null) {
+					topUsers = new TopKSketch(TOP_USERS_CAPACITY);
+				}
+				topUsers.merge(other.topUsers);
+			} else {
+				other.topUsers.top(TOP_USERS_CAPACITY).forEach(user -> increment(users, user.key(), (int) user.count()));
+			}
+		}
+		other.daily.forEach((date, counts) -> {
+			int[] target = daily.computeIfAbsent(date, d -> new int[2]);
+			target[0] += counts[0];
+			target[1] += counts[1];
+		});
+		createdBefore += other.createdBefore;
+		resolvedBefore += other.resolvedBefore;
+		other.priorities.forEach((priority, count) -> increment(priorities, priority, count[0]));
+		return this;
+	}
+
+	public List<BinCount> getTimeToClose() {
+		return sketches ? toBins(timeToCloseSeconds, bucketing) : timeToClose.toBins(bucketing);
+	}
+
+	public Map<String, List<BinCount>> getStatusTime() {
+		Map<String, List<BinCount>> result = new TreeMap<>();
+		statusTime.forEach((status, histogram) -> {
+			if (status != null) {
+				result.put(status, histogram.toBins(bucketing));
+			}
+		});
+		return result;
+	}
+
+	public List<DailyStats> getDailyStats() {
+		if (daily.isEmpty()) {
+			return List.of();
+		}
+
+		List<DailyStats> result = new ArrayList<>();
+		int cumCreated = createdBefore, cumResolved = resolvedBefore;
+
+		for (LocalDate date = daily.firstKey(); !date.isAfter(daily.lastKey()); date = date.plusDays(1)) {
+			int[] counts = daily.getOrDefault(date, new int[2]);
+			cumCreated += counts[0];
+			cumResolved += counts[1];
+			result.add(new DailyStats(date, counts[0], counts[1], cumCreated, cumResolved));
+		}
+
+		return result;
+	}
+
+	public List<UserCount> getTopUsers() {
+		if (sketches) {
+			return topUsers == null ? List.of() : topUsers.top(TOP_USERS_LIMIT).stream()
+					.map(user -> new UserCount(user.key(), (int) user.count()))
+					.toList();
+		}
+		return users.entrySet().stream()
+				.sorted(Comparator.<Map.Entry<String, int[]>>comparingInt(e -> e.getValue()[0]).reversed()
+						.thenComparing(Map.Entry::getKey))
+				.limit(TOP_USERS_LIMIT)
+				.map(e -> new UserCount(e.getKey(), e.getValue()[0]))
+				.toList();
+	}
+
+	public List<BinCount> getInProgressTime() {
+		return sketches ? toBins(inProgressSeconds, bucketing) : inProgressTime.toBins(bucketing);
+	}
+
+	public Map<String, Percentiles> getPercentiles() {
+		Map<String, Percentiles> result = new LinkedHashMap<>();
+		if (!timeToCloseSeconds.isEmpty()) {
+			result.put("timeToClose", percentiles(timeToCloseSeconds));
+		}
+		if (!inProgressSeconds.isEmpty()) {
+			result.put("inProgress", percentiles(inProgressSeconds));
+		}
+		return result;
+	}
+
+	public List<BinCount> getPriorities() {
+		return priorities.entrySet().stream()
+				.sorted(Map.Entry.comparingByKey())
+				.map(e -> new BinCount(e.getKey(), e.getValue()[0]))
+				.toList();
+	}
+
+	public DashboardData toData() {
+		Map<String, Object> widgets = new LinkedHashMap<>();
+		widgets.put(DashboardWidget.TIME_TO_CLOSE.getAttribute(), getTimeToClose());
+		widgets.put(DashboardWidget.STATUS_TIME.getAttribute(), getStatusTime());
+		widgets.put(DashboardWidget.DAILY_STATS.getAttribute(), getDailyStats());
+		widgets.put(DashboardWidget.TOP_USERS.getAttribute(), getTopUsers());
+		widgets.put(DashboardWidget.ASSIGNED_TIME.getAttribute(), getInProgressTime());
+		widgets.put(DashboardWidget.PRIORITY.getAttribute(), getPriorities());
+		widgets.put(DashboardWidget.PERCENTILES.getAttribute(), getPercentiles());
+		return new DashboardData(widgets, Set.of());
+	}
+
+	private static LocalDate toDate(long epochSecond) {
+		return LocalDate.ofEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+	}
+
+	private static <K> void increment(Map<K, int[]> counts, K key, int delta) {
+		int[] count = counts.computeIfAbsent(key, k -> new int[1]);
+		count[0] += delta;
+		if (count[0] == 0) {
+			counts.remove(key);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.kzkv.visisis.lab4.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Getter
+@RequiredArgsConstructor
+public enum DashboardWidget {
+
+	TIME_TO_CLOSE("timeToCloseData", "time-to-close", List.of(), DashboardService::getIssuesByOpenedTime),
+	STATUS_TIME("statusTimeData", "status-time", Map.of(), DashboardService::getStatusTimeDistribution),
+	DAILY_STATS("dailyStats", "daily-stats", List.of(), DashboardService::getDailyTaskStats),
+	TOP_USERS("topUsers", "top-users", List.of(), DashboardService::getTopUsers),
+	ASSIGNED_TIME("assignedTimeData", "assigned-time", List.of(), DashboardService::getAssignedIssuesTimeDistribution),
+	PRIORITY("priorityData", "priority", List.of(), DashboardService::getIssuesByPriority),
+	PERCENTILES("percentilesData", "percentiles", Map.of(), DashboardService::getPercentiles);
+
+	private final String attribute;
+	private final String path;
+	private final Object fallback;
+	private final Loader loader;
+
+	public static Optional<DashboardWidget> fromPath(String path) {
+		return Arrays.stream(values())
+				.filter(widget -> widget.path.equals(path))
+				.findFirst();
+	}
+
+	public Object load(DashboardService dashboardService, String projectKey, int maxResults) {
+		return loader.load(dashboardService, projectKey, maxResults);
+	}
+
+	@FunctionalInterface
+	interface Loader {
+		Object load(DashboardService dashboardService, String projectKey, int maxResults);
+	}
+}
@@ -0,0 +1,28 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+
+/**
+ * Aggregate built from the three issue lists of a project that can take single issues in and out again, so a
+ * refresh that changed a few issues updates it instead of rebuilding it.
+ */
+public interface IssueAggregate<T extends IssueAggregate<T>> {
+
+	void add(Source source, Issue issue);
+
+	void remove(Source source, Issue issue);
+
+	/**
+	 * Sketch-backed aggregates only grow; {@link #remove} then throws.
+	 */
+	boolean isRetractable();
+
+	T copy();
+
+	/**
+	 * The issue list an issue was read from, in the order {@link Jql} queries are issued.
+	 */
+	enum Source {
+		CLOSED, DATED, ANY
+	}
+}
@@ -0,0 +1,271 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.kzkv.visisis.lab4.columnar.IssueTable;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import com.kzkv.visisis.lab4.dto.IssuesChangedEvent;
+import com.kzkv.visisis.lab4.dto.SingleFlightStatistics;
+import com.kzkv.visisis.lab4.store.IssueStore;
+import com.kzkv.visisis.lab4.store.SecondLevelCache;
+import com.kzkv.visisis.lab4.store.StoredIssues;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IssueLoader implements CacheLoader<Object, Object> {
+
+	private static final DateTimeFormatter JQL_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+
+	private final JiraClient jiraClient;
+	private final IssueStore issueStore;
+	private final SecondLevelCache secondLevelCache;
+	private final TaskExecutor taskExecutor;
+	private final ObjectProvider<CacheManager> cacheManager;
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final Map<IssueQuery, SyncState> syncStates = new ConcurrentHashMap<>();
+	private final Map<IssueQuery, Instant> staleSince = new ConcurrentHashMap<>();
+	private final SingleFlight<IssueQuery, List<Issue>> singleFlight = new SingleFlight<>();
+
+	@Value("${cache.issues.columnar:true}")
+	private boolean columnar;
+
+	@Value("${jira.delta.enabled:true}")
+	private boolean deltaEnabled;
+
+	@Value("${jira.delta.overlap:1h}")
+	private Duration deltaOverlap;
+
+	@Value("${jira.delta.full-resync-interval:24h}")
+	private Duration fullResyncInterval;
+
+	@Value("${jira.delta.time-zone:UTC}")
+	private ZoneId jiraTimeZone;
+
+	@Value("${jira.max-total-issues:20000}")
+	private int maxTotalIssues;
+
+	@Value("${cache.l2.fresh-for:10m}")
+	private Duration sharedFreshFor;
+
+	@Override
+	public List<Issue> load(Object key) {
+		IssueQuery query = (IssueQuery) key;
+		long started = System.nanoTime();
+		Optional<StoredIssues> stored = issueStore.get(query);
+		if (stored.isEmpty()) {
+			return fetch(query);
+		}
+
+		List<Issue> issues = columnar(stored.get().issues());
+		syncStates.putIfAbsent(query, new SyncState(stored.get().fetchedAt(), stored.get().fullSyncAt()));
+		log.info("Served {} issues for [{}] from store in {} ms (last Jira sync took {} ms), refreshing in background",
+				issues.size(), query.jql(), Duration.ofNanos(System.nanoTime() - started).toMillis(),
+				stored.get().fetchMillis());
+		taskExecutor.execute(() -> refresh(query, issues));
+		return issues;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Issue> reload(Object key, Object oldValue) {
+		return sync((IssueQuery) key, (List<Issue>) oldValue);
+	}
+
+	/**
+	 * Syncs {@code query} with Jira. While Jira fails, the last good issues are served from the local store or, when
+	 * it has none, from the shared cache.
+	 */
+	public List<Issue> fetch(IssueQuery query) {
+		try {
+			return sync(query, null);
+		} catch (RuntimeException e) {
+			Optional<StoredIssues> stored = issueStore.get(query);
+			if (stored.isPresent()) {
+				log.warn("Jira unavailable for [{}], serving stored issues synced at {}", query.jql(), stored.get().fetchedAt());
+				syncStates.putIfAbsent(query, new SyncState(stored.get().fetchedAt(), stored.get().fullSyncAt()));
+				return columnar(stored.get().issues());
+			}
+			Optional<StoredIssues> lastGood = secondLevelCache.get(query);
+			if (lastGood.isEmpty()) {
+				throw e;
+			}
+			log.warn("Jira unavailable for [{}], serving issues synced at {}", query.jql(), lastGood.get().fetchedAt());
+			return adopt(query, lastGood.get());
+		}
+	}
+
+	public Optional<Instant> staleSince(IssueQuery query) {
+		return Optional.ofNullable(staleSince.get(query));
+	}
+
+	public SingleFlightStatistics singleFlightStatistics() {
+		return singleFlight.statistics();
+	}
+
+	private List<Issue> sync(IssueQuery query, List<Issue> current) {
+		try {
+			List<Issue> issues = singleFlight.execute(query, () -> syncNow(query, current));
+			staleSince.remove(query);
+			return issues;
+		} catch (RuntimeException e) {
+			staleSince.putIfAbsent(query, Instant.now());
+			throw e;
+		}
+	}
+
+	private List<Issue> syncNow(IssueQuery query, List<Issue> current) {
+		Instant started = Instant.now();
+		SyncState state = syncStates.get(query);
+		Optional<StoredIssues> shared = secondLevelCache.get(query)
+				.filter(entry -> entry.fetchedAt().isAfter(started.minus(sharedFreshFor)))
+				.filter(entry -> state == null || entry.fetchedAt().isAfter(state.highWaterMark()));
+		if (shared.isPresent()) {
+			return adopt(query, shared.get());
+		}
+
+		int limit = Math.min(query.maxResults(), maxTotalIssues);
+		boolean delta = deltaEnabled && current != null && state != null && current.size() < limit
+				&& state.fullSyncAt().isAfter(started.minus(fullResyncInterval));
+
+		List<Issue> removed = new ArrayList<>();
+		List<Issue> added = new ArrayList<>();
+		List<Issue> issues = delta ? deltaSync(query, current, state, limit, removed, added) : null;
+		SyncState next;
+		if (issues != null) {
+			next = new SyncState(started, state.fullSyncAt());
+		} else {
+			delta = false;
+			issues = jiraClient.fetch(query.jql(), query.maxResults());
+			next = new SyncState(started, started);
+		}
+
+		issues = columnar(issues);
+		long fetchMillis = Duration.between(started, Instant.now()).toMillis();
+		syncStates.put(query, next);
+		StoredIssues stored = new StoredIssues(issues, next.highWaterMark(), next.fullSyncAt(), fetchMillis);
+		issueStore.put(query, stored);
+		secondLevelCache.put(query, stored);
+		log.info("Fetched {} issues for [{}] from Jira in {} ms ({})",
+				issues.size(), query.jql(), fetchMillis, delta ? "delta" : "full");
+		if (delta && issues != current) {
+			eventPublisher.publishEvent(new IssuesChangedEvent(query, current, issues, removed, added));
+		}
+		return issues;
+	}
+
+	/**
+	 * Merges the issues updated since the last sync into {@code current}. Only used while {@code current} is the
+	 * complete result of the query, i.e. smaller than the {@code maxResults} / {@code jira.max-total-issues} limit;
+	 * returns {@code null} when a delta query or the merged set reaches that limit, as the result could then differ
+	 * from what a full fetch returns. Issues that were updated so that they no longer match the query are found with
+	 * a second {@code NOT (jql)} query over the project and dropped.
+	 */
+	private List<Issue> deltaSync(IssueQuery query, List<Issue> current, SyncState state, int limit,
+								  List<Issue> removed, List<Issue> added) {
+		String since = JQL_FORMAT.format(state.highWaterMark().minus(deltaOverlap).atZone(jiraTimeZone));
+		String updatedSince = " AND updated >= \"" + since + "\"";
+		String project = Jql.project(Jql.projectKeyOf(query.jql()));
+
+		List<Issue> changed = jiraClient.fetch("(" + query.jql() + ")" + updatedSince, limit);
+		List<Issue> left = changed.size() >= limit || query.jql().equals(project)
+				? List.of()
+				: jiraClient.fetch(project + updatedSince + " AND NOT (" + query.jql() + ")", limit);
+		if (changed.size() >= limit || left.size() >= limit) {
+			log.info("Delta sync of [{}] since {} reached {} issues, falling back to a full sync", query.jql(), since, limit);
+			return null;
+		}
+
+		List<Issue> issues = merge(current, changed, left, removed, added);
+		if (issues.size() >= limit) {
+			log.info("Delta sync of [{}] grew the set to {} issues, falling back to a full sync", query.jql(), limit);
+			removed.clear();
+			added.clear();
+			return null;
+		}
+		log.info("Delta sync of [{}] since {}: {} of {} fetched issues changed, {} left the query, {} in total",
+				query.jql(), since, added.size(), changed.size(), left.size(), issues.size());
+		return issues;
+	}
+
+	private List<Issue> adopt(IssueQuery query, StoredIssues shared) {
+		List<Issue> issues = columnar(shared.issues());
+		syncStates.put(query, new SyncState(shared.fetchedAt(), shared.fullSyncAt()));
+		issueStore.put(query, new StoredIssues(issues, shared.fetchedAt(), shared.fullSyncAt(), shared.fetchMillis()));
+		log.info("Took {} issues for [{}] from the shared cache, synced with Jira at {}",
+				issues.size(), query.jql(), shared.fetchedAt());
+		return issues;
+	}
+
+	private void refresh(IssueQuery query, List<Issue> current) {
+		try {
+			List<Issue> issues = sync(query, current);
+			Cache cache = cacheManager.getObject().getCache("issues");
+			if (cache != null) {
+				cache.put(query, issues);
+			}
+		} catch (Exception e) {
+			log.warn("Background refresh of [{}] failed, keeping stored issues", query.jql(), e);
+		}
+	}
+
+	private List<Issue> columnar(List<Issue> issues) {
+		return columnar ? IssueTable.of(issues) : issues;
+	}
+
+	/**
+	 * Applies {@code changed} by key and drops the keys in {@code left}, collecting the replaced or dropped and the new
+	 * versions of issues that actually differ. Returns {@code current} itself when nothing differs, so everything
+	 * cached on that list stays valid.
+	 */
+	static List<Issue> merge(List<Issue> current, List<Issue> changed, List<Issue> left,
+							 List<Issue> removed, List<Issue> added) {
+		if (changed.isEmpty() && left.isEmpty()) {
+			return current;
+		}
+		Map<String, Issue> latest = new LinkedHashMap<>(changed.size());
+		for (Issue issue : changed) {
+			latest.put(issue.key(), issue);
+		}
+		Map<String, Issue> byKey = new LinkedHashMap<>(current.size() + latest.size());
+		for (Issue issue : current) {
+			byKey.put(issue.key(), issue);
+		}
+		for (Issue issue : latest.values()) {
+			Issue previous = byKey.put(issue.key(), issue);
+			if (issue.equals(previous)) {
+				continue;
+			}
+			if (previous != null) {
+				removed.add(previous);
+			}
+			added.add(issue);
+		}
+		for (Issue issue : left) {
+			Issue previous = latest.containsKey(issue.key()) ? null : byKey.remove(issue.key());
+			if (previous != null) {
+				removed.add(previous);
+			}
+		}
+		return added.isEmpty() && removed.isEmpty() ? current : List.copyOf(byKey.values());
+	}
+
+	private record SyncState(Instant highWaterMark, Instant fullSyncAt) {}
+}
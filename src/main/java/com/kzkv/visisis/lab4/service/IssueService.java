@@ -2,10 +2,16 @@ package com.kzkv.visisis.lab4.service;
 
 import com.kzkv.visisis.lab4.dto.Issue;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface IssueService {
 
 	List<Issue> getIssues(String jql, int maxResults);
 
+	default Optional<Instant> staleSince(String jql, int maxResults) {
+		return Optional.empty();
+	}
+
 }
@@ -0,0 +1,200 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.JiraSearchPage;
+import com.kzkv.visisis.lab4.resilience.JiraGuard;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JiraClient {
+
+	private final RestTemplate restTemplate;
+	private final TaskExecutor taskExecutor;
+	private final JiraSearchDecoder jiraSearchDecoder;
+	private final MeterRegistry meterRegistry;
+	private final JiraGuard jiraGuard;
+
+	@Value("${url.jira}")
+	private String urlTemplate;
+
+	@Value("${jira.page-size:100}")
+	private int pageSize;
+
+	@Value("${jira.fetch-concurrency:4}")
+	private int fetchConcurrency;
+
+	@Value("${jira.max-total-issues:20000}")
+	private int maxTotalIssues;
+
+	@Value("${jira.metrics.projects:}")
+	private List<String> metricProjects = List.of();
+
+	public List<Issue> fetch(String jql, int maxResults) {
+		String project = projectTag(jql);
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "error";
+		try {
+			List<Issue> issues = fetchAll(jql, Math.min(maxResults, maxTotalIssues));
+			DistributionSummary.builder("jira.fetch.issues")
+					.baseUnit("issues")
+					.tag("project", project)
+					.register(meterRegistry)
+					.record(issues.size());
+			outcome = "success";
+			return issues;
+		} finally {
+			sample.stop(Timer.builder("jira.fetch")
+					.tag("project", project)
+					.tag("outcome", outcome)
+					.register(meterRegistry));
+		}
+	}
+
+	private List<Issue> fetchAll(String jql, int limit) {
+		JiraSearchPage first = fetchPage(jql, 0, Math.min(pageSize, limit));
+		int target = Math.min(first.total(), limit);
+		int pageLength = first.issues().size();
+		if (pageLength == 0 || pageLength >= target) {
+			return first.issues().size() > target ? first.issues().subList(0, target) : first.issues();
+		}
+
+		int pageCount = (target + pageLength - 1) / pageLength;
+		log.info("Fetching {} of {} issues for [{}] in {} pages", target, first.total(), jql, pageCount);
+
+		Semaphore permits = new Semaphore(Math.max(1, fetchConcurrency));
+		AtomicBoolean abandoned = new AtomicBoolean();
+		AtomicInteger fetched = new AtomicInteger(1);
+		List<CompletableFuture<List<Issue>>> pages = new ArrayList<>(pageCount - 1);
+		for (int startAt = pageLength; startAt < target; startAt += pageLength) {
+			int pageStart = startAt;
+			int pageMax = Math.min(pageLength, target - startAt);
+			pages.add(CompletableFuture.supplyAsync(() -> {
+				permits.acquireUninterruptibly();
+				try {
+					if (abandoned.get()) {
+						throw new CancellationException();
+					}
+					List<Issue> issues = fetchPage(jql, pageStart, pageMax).issues();
+					log.info("Fetched page {}/{} for [{}]", fetched.incrementAndGet(), pageCount, jql);
+					return issues;
+				} finally {
+					permits.release();
+				}
+			}, taskExecutor));
+		}
+
+		List<Issue> result = new ArrayList<>(target);
+		result.addAll(first.issues());
+		try {
+			for (CompletableFuture<List<Issue>> page : pages) {
+				result.addAll(page.join());
+			}
+		} catch (CompletionException e) {
+			abandoned.set(true);
+			pages.forEach(page -> page.cancel(false));
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+		return result.size() > target ? result.subList(0, target) : result;
+	}
+
+	private JiraSearchPage fetchPage(String jql, int startAt, int maxResults) {
+		String url = urlTemplate.formatted(jql, startAt, maxResults);
+		String project = projectTag(jql);
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "error";
+		try {
+			JiraSearchPage page = jiraGuard.call("[" + jql + "] at " + startAt, () -> restTemplate.execute(
+					url, HttpMethod.GET,
+					request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+					response -> decode(response.getBody(), startAt, project)));
+			outcome = "success";
+			return page;
+		} finally {
+			sample.stop(Timer.builder("jira.request")
+					.tag("project", project)
+					.tag("outcome", outcome)
+					.register(meterRegistry));
+		}
+	}
+
+	/**
+	 * Tags meters only with the projects listed in {@code jira.metrics.projects}; any other key a caller sends is
+	 * reported as {@code other}, so requests cannot create an unbounded number of series.
+	 */
+	private String projectTag(String jql) {
+		String project = Jql.projectKeyOf(jql);
+		return metricProjects.contains(project) ? project : "other";
+	}
+
+	private JiraSearchPage decode(InputStream body, int startAt, String project) throws IOException {
+		CountingInputStream counting = new CountingInputStream(body);
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			return jiraSearchDecoder.decode(counting, startAt);
+		} finally {
+			sample.stop(Timer.builder("jira.parse")
+					.tag("project", project)
+					.register(meterRegistry));
+			DistributionSummary.builder("jira.response.bytes")
+					.baseUnit("bytes")
+					.tag("project", project)
+					.register(meterRegistry)
+					.record(counting.count);
+		}
+	}
+
+	private static final class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) count++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) count += n;
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+
+}
@@ -0,0 +1,197 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.JiraSearchPage;
+import com.kzkv.visisis.lab4.dto.StatusChange;
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class JiraSearchDecoder {
+
+	private final ObjectMapper objectMapper;
+
+	public JiraSearchPage decode(InputStream body, int startAt) throws IOException {
+		try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return new JiraSearchPage(startAt, 0, List.of());
+			}
+
+			int total = -1;
+			List<Issue> issues = new ArrayList<>();
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.currentName();
+				JsonToken token = parser.nextToken();
+				if ("total".equals(name)) {
+					total = parser.getValueAsInt(-1);
+					parser.skipChildren();
+				} else if ("issues".equals(name) && token == JsonToken.START_ARRAY) {
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						issues.add(readIssue(parser));
+					}
+				} else {
+					parser.skipChildren();
+				}
+			}
+			return new JiraSearchPage(startAt, total >= 0 ? total : issues.size(), issues);
+		}
+	}
+
+	private static Issue readIssue(JsonParser parser) throws IOException {
+		IssueFields fields = new IssueFields();
+		String key = null;
+		List<StatusChange> changes = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.currentName();
+			JsonToken token = parser.nextToken();
+			switch (name) {
+				case "key" -> key = text(parser);
+				case "fields" -> {
+					if (token == JsonToken.START_OBJECT) readFields(parser, fields);
+					else parser.skipChildren();
+				}
+				case "changelog" -> {
+					if (token == JsonToken.START_OBJECT) changes = readChangelog(parser);
+					else parser.skipChildren();
+				}
+				default -> parser.skipChildren();
+			}
+		}
+
+		return new Issue(
+				key,
+				fields.created,
+				fields.resolved,
+				fields.status,
+				fields.reporter,
+				fields.assignee,
+				fields.priority,
+				StatusTimeline.of(fields.created, fields.resolved, fields.status, changes)
+		);
+	}
+
+	private static void readFields(JsonParser parser, IssueFields fields) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.currentName();
+			parser.nextToken();
+			switch (name) {
+				case "created" -> fields.created = Issue.parseDate(text(parser));
+				case "resolutiondate" -> fields.resolved = Issue.parseDate(text(parser));
+				case "status" -> fields.status = readProperty(parser, "name");
+				case "reporter" -> fields.reporter = readProperty(parser, "displayName");
+				case "assignee" -> fields.assignee = readProperty(parser, "displayName");
+				case "priority" -> fields.priority = readProperty(parser, "name");
+				default -> parser.skipChildren();
+			}
+		}
+	}
+
+	private static List<StatusChange> readChangelog(JsonParser parser) throws IOException {
+		List<StatusChange> changes = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.currentName();
+			JsonToken token = parser.nextToken();
+			if ("histories".equals(name) && token == JsonToken.START_ARRAY) {
+				changes = new ArrayList<>();
+				while (parser.nextToken() == JsonToken.START_OBJECT) {
+					readHistory(parser, changes);
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return changes;
+	}
+
+	private static void readHistory(JsonParser parser, List<StatusChange> changes) throws IOException {
+		LocalDateTime created = null;
+		List<String[]> transitions = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.currentName();
+			JsonToken token = parser.nextToken();
+			if ("created".equals(name)) {
+				created = Issue.parseDate(text(parser));
+			} else if ("items".equals(name) && token == JsonToken.START_ARRAY) {
+				while (parser.nextToken() == JsonToken.START_OBJECT) {
+					String[] transition = readStatusItem(parser);
+					if (transition != null) {
+						if (transitions == null) transitions = new ArrayList<>(1);
+						transitions.add(transition);
+					}
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+
+		if (created == null || transitions == null) return;
+		for (String[] transition : transitions) {
+			changes.add(new StatusChange(created, transition[0], transition[1]));
+		}
+	}
+
+	private static String[] readStatusItem(JsonParser parser) throws IOException {
+		boolean status = false;
+		String from = null;
+		String to = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.currentName();
+			parser.nextToken();
+			switch (name) {
+				case "field" -> status = "status".equals(text(parser));
+				case "fromString" -> from = text(parser);
+				case "toString" -> to = text(parser);
+				default -> parser.skipChildren();
+			}
+		}
+		return status ? new String[]{from, to} : null;
+	}
+
+	private static String readProperty(JsonParser parser, String property) throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return null;
+		}
+		String value = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.currentName();
+			parser.nextToken();
+			if (property.equals(name)) {
+				value = text(parser);
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return value;
+	}
+
+	private static String text(JsonParser parser) throws IOException {
+		if (parser.currentToken().isStructStart()) {
+			parser.skipChildren();
+			return null;
+		}
+		return parser.getValueAsString();
+	}
+
+	private static final class IssueFields {
+		private LocalDateTime created;
+		private LocalDateTime resolved;
+		private String status;
+		private String reporter;
+		private String assignee;
+		private String priority;
+	}
+}
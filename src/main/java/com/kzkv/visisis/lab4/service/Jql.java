@@ -0,0 +1,40 @@
+package com.kzkv.visisis.lab4.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class Jql {
+
+	private static final Pattern PROJECT = Pattern.compile("project = \"([A-Za-z0-9_-]+)\"");
+
+	private Jql() {
+	}
+
+	public static String closed(String projectKey) {
+		return project(projectKey) + " AND status = Closed";
+	}
+
+	public static String createdOrResolved(String projectKey) {
+		return project(projectKey) + " AND (created IS NOT NULL OR resolutiondate IS NOT NULL)";
+	}
+
+	public static String project(String projectKey) {
+		return "project = \"" + sanitizeProjectKey(projectKey) + "\"";
+	}
+
+	public static boolean isValidProjectKey(String key) {
+		return key != null && key.matches("[A-Za-z0-9_-]+");
+	}
+
+	public static String sanitizeProjectKey(String key) {
+		if (!isValidProjectKey(key)) {
+			throw new IllegalArgumentException("Invalid project key: " + key);
+		}
+		return key;
+	}
+
+	public static String projectKeyOf(String jql) {
+		Matcher matcher = PROJECT.matcher(jql);
+		return matcher.find() ? matcher.group(1) : "unknown";
+	}
+}
@@ -0,0 +1,151 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.IssuesChangedEvent;
+import com.kzkv.visisis.lab4.service.IssueAggregate.Source;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.WeakReference;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keeps the snapshot and daily rollup of each project current. When a refresh replaced an issue list through a delta
+ * sync, a copy of the cached aggregate takes out the replaced issues and takes in the new ones instead of being
+ * rebuilt from every issue.
+ */
+@Component
+public class ProjectSnapshots {
+
+	private static final int MAX_CHAIN = 16;
+
+	private final DashboardService dashboardService;
+	private final IssueService issueService;
+	private final Cache<Key, Entry<DashboardSnapshot>> snapshots;
+	private final Cache<Key, Entry<DailyRollup>> rollups;
+	private final Cache<List<Issue>, Change> changes;
+
+	public ProjectSnapshots(DashboardService dashboardService, IssueService issueService,
+							@Value("${dashboard.snapshot-cache.max-entries:256}") long maxEntries) {
+		this.dashboardService = dashboardService;
+		this.issueService = issueService;
+		this.snapshots = Caffeine.newBuilder().maximumSize(maxEntries).build();
+		this.rollups = Caffeine.newBuilder().maximumSize(maxEntries).build();
+		this.changes = Caffeine.newBuilder().weakKeys().maximumSize(maxEntries * MAX_CHAIN).build();
+	}
+
+	@EventListener
+	public void onIssuesChanged(IssuesChangedEvent event) {
+		changes.put(event.current(), new Change(new WeakReference<>(event.previous()), event.removed(), event.added()));
+	}
+
+	public DashboardSnapshot get(String projectKey, int maxResults) {
+		return current(snapshots, projectKey, maxResults, sources -> dashboardService.getSnapshot(sources.get(0), sources.get(1), sources.get(2)));
+	}
+
+	public DailyRollup rollup(String projectKey, int maxResults) {
+		return current(rollups, projectKey, maxResults, sources -> dashboardService.getRollup(sources.get(0), sources.get(1), sources.get(2)));
+	}
+
+	public DashboardSnapshot range(String projectKey, int maxResults, LocalDate from, LocalDate to) {
+		if (from == null && to == null) {
+			return get(projectKey, maxResults);
+		}
+		return rollup(projectKey, maxResults).range(from, to);
+	}
+
+	/**
+	 * Returns the aggregate of exactly the lists read here; building it from a second read could pair the recorded
+	 * lists with a value built from newer ones, and later deltas would then be applied twice.
+	 */
+	private <T extends IssueAggregate<T>> T current(Cache<Key, Entry<T>> entries, String projectKey, int maxResults,
+													Function<List<List<Issue>>, T> builder) {
+		Key key = new Key(projectKey, maxResults);
+		List<List<Issue>> sources = List.of(
+				issueService.getIssues(Jql.closed(projectKey), maxResults),
+				issueService.getIssues(Jql.createdOrResolved(projectKey), maxResults),
+				issueService.getIssues(Jql.project(projectKey), maxResults)
+		);
+
+		Entry<T> entry = entries.getIfPresent(key);
+		if (entry != null && entry.isBuiltFrom(sources)) {
+			return entry.value();
+		}
+		return entries.asMap().compute(key, (k, existing) -> {
+			if (existing != null && existing.isBuiltFrom(sources)) {
+				return existing;
+			}
+			T updated = existing != null ? update(existing, sources) : null;
+			return new Entry<>(sources, updated != null ? updated : builder.apply(sources));
+		}).value();
+	}
+
+	/**
+	 * Replays the recorded changes between the lists {@code entry} was built from and {@code sources} onto a copy of
+	 * its value, or returns null when some step is unknown and the value has to be rebuilt.
+	 */
+	private <T extends IssueAggregate<T>> T update(Entry<T> entry, List<List<Issue>> sources) {
+		if (!entry.value().isRetractable()) {
+			return null;
+		}
+		List<List<Change>> chains = new ArrayList<>(sources.size());
+		for (int i = 0; i < sources.size(); i++) {
+			List<Change> chain = chain(entry.sources().get(i), sources.get(i));
+			if (chain == null) {
+				return null;
+			}
+			chains.add(chain);
+		}
+
+		T updated = entry.value().copy();
+		for (int i = 0; i < chains.size(); i++) {
+			Source source = Source.values()[i];
+			for (Change change : chains.get(i)) {
+				change.removed().forEach(issue -> updated.remove(source, issue));
+				change.added().forEach(issue -> updated.add(source, issue));
+			}
+		}
+		return updated;
+	}
+
+	private List<Change> chain(List<Issue> from, List<Issue> to) {
+		Deque<Change> chain = new ArrayDeque<>();
+		for (List<Issue> list = to; list != from; list = chain.getFirst().previous().get()) {
+			Change change = list == null ? null : changes.getIfPresent(list);
+			if (change == null || chain.size() == MAX_CHAIN) {
+				return null;
+			}
+			chain.addFirst(change);
+		}
+		return List.copyOf(chain);
+	}
+
+	/**
+	 * One recorded delta; the earlier list is only weakly held so old issue lists are not kept alive by the chain.
+	 */
+	private record Change(WeakReference<List<Issue>> previous, List<Issue> removed, List<Issue> added) {
+	}
+
+	private record Key(String projectKey, int maxResults) {
+	}
+
+	private record Entry<T>(List<List<Issue>> sources, T value) {
+
+		boolean isBuiltFrom(List<List<Issue>> current) {
+			for (int i = 0; i < sources.size(); i++) {
+				if (sources.get(i) != current.get(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
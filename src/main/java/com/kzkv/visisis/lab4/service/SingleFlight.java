@@ -0,0 +1,53 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.SingleFlightStatistics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public final class SingleFlight<K, V> {
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder executed = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	public V execute(K key, Supplier<V> supplier) {
+		CompletableFuture<V> call = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+		if (existing != null) {
+			coalesced.increment();
+			return await(existing);
+		}
+
+		executed.increment();
+		try {
+			V value = supplier.get();
+			inFlight.remove(key, call);
+			call.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			failed.increment();
+			inFlight.remove(key, call);
+			call.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	public SingleFlightStatistics statistics() {
+		return new SingleFlightStatistics(executed.sum(), coalesced.sum(), failed.sum(), inFlight.size());
+	}
+
+	private static <V> V await(CompletableFuture<V> call) {
+		try {
+			return call.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+			if (e.getCause() instanceof Error error) throw error;
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.kzkv.visisis.lab4.store;
+
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+@Slf4j
+@Component
+public class FileSecondLevelCache implements SecondLevelCache {
+
+	private static final int MAGIC = 0x4953324C;
+	private static final int HEADER_BYTES = 12;
+	private static final String SUFFIX = ".l2";
+
+	private final boolean enabled;
+	private final Path directory;
+	private final Duration maxAge;
+
+	public FileSecondLevelCache(
+			@Value("${cache.l2.enabled:false}") boolean enabled,
+			@Value("${cache.l2.dir:./data/shared-cache}") Path directory,
+			@Value("${cache.l2.max-age:1d}") Duration maxAge) {
+		this.enabled = enabled;
+		this.directory = directory;
+		this.maxAge = maxAge;
+	}
+
+	@Override
+	public Optional<StoredIssues> get(IssueQuery query) {
+		if (!enabled) {
+			return Optional.empty();
+		}
+		Path file = fileOf(query);
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+			Optional<StoredIssues> stored = decode(query, buffer);
+			if (stored.isEmpty()) {
+				log.warn("Ignoring unreadable shared cache entry {}", file);
+			} else if (stored.get().fetchedAt().isBefore(Instant.now().minus(maxAge))) {
+				Files.deleteIfExists(file);
+				return Optional.empty();
+			}
+			return stored;
+		} catch (NoSuchFileException e) {
+			return Optional.empty();
+		} catch (IOException | RuntimeException e) {
+			log.warn("Failed to read {} from shared cache", query, e);
+			return Optional.empty();
+		}
+	}
+
+	@Override
+	public void put(IssueQuery query, StoredIssues stored) {
+		if (!enabled) {
+			return;
+		}
+		Path file = fileOf(query);
+		Path temp = null;
+		try {
+			Files.createDirectories(directory);
+			temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+			Files.write(temp, encode(query, stored), StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+			Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			log.warn("Failed to write {} to shared cache", query, e);
+			if (temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch (IOException ignored) {
+					// best effort, a stale temp file is never read
+				}
+			}
+		}
+	}
+
+	private Path fileOf(IssueQuery query) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update((query.maxResults() + "\n" + query.jql()).getBytes(StandardCharsets.UTF_8));
+			return directory.resolve(HexFormat.of().formatHex(digest.digest(), 0, 20) + SUFFIX);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static byte[] encode(IssueQuery query, StoredIssues stored) throws IOException {
+		byte[] issues = IssueCodec.encode(stored.issues());
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(issues.length + 64);
+		DataOutputStream out = new DataOutputStream(payload);
+		out.writeLong(stored.fetchedAt().toEpochMilli());
+		out.writeLong(stored.fullSyncAt().toEpochMilli());
+		out.writeLong(stored.fetchMillis());
+		out.writeInt(query.maxResults());
+		IssueCodec.writeString(out, query.jql());
+		out.write(issues);
+
+		byte[] bytes = payload.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+
+		ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bytes.length);
+		record.putInt(MAGIC).putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+		return record.array();
+	}
+
+	static Optional<StoredIssues> decode(IssueQuery query, ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+			return Optional.empty();
+		}
+		int length = buffer.getInt();
+		int checksum = buffer.getInt();
+		if (length != buffer.remaining()) {
+			return Optional.empty();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.duplicate());
+		if ((int) crc.getValue() != checksum) {
+			return Optional.empty();
+		}
+
+		Instant fetchedAt = Instant.ofEpochMilli(buffer.getLong());
+		Instant fullSyncAt = Instant.ofEpochMilli(buffer.getLong());
+		long fetchMillis = buffer.getLong();
+		int maxResults = buffer.getInt();
+		String jql = IssueCodec.readString(buffer);
+		if (!query.equals(new IssueQuery(jql, maxResults))) {
+			return Optional.empty();
+		}
+		return Optional.of(new StoredIssues(IssueCodec.decode(buffer.slice()), fetchedAt, fullSyncAt, fetchMillis));
+	}
+}
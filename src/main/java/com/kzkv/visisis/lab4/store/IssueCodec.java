@@ -0,0 +1,149 @@
+package com.kzkv.visisis.lab4.store;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class IssueCodec {
+
+	private static final long NO_TIME = Long.MIN_VALUE;
+	private static final int NO_STRING = -1;
+
+	private IssueCodec() {
+	}
+
+	public static byte[] encode(List<Issue> issues) {
+		try {
+			Map<String, Integer> strings = new HashMap<>();
+			List<String> table = new ArrayList<>();
+			ByteArrayOutputStream body = new ByteArrayOutputStream(issues.size() * 64);
+			DataOutputStream out = new DataOutputStream(body);
+
+			out.writeInt(issues.size());
+			for (Issue issue : issues) {
+				writeRef(out, issue.key(), strings, table);
+				writeTime(out, issue.created());
+				writeTime(out, issue.resolved());
+				writeRef(out, issue.status(), strings, table);
+				writeRef(out, issue.reporter(), strings, table);
+				writeRef(out, issue.assignee(), strings, table);
+				writeRef(out, issue.priority(), strings, table);
+				out.writeInt(issue.statusDurations().size());
+				for (StatusDuration duration : issue.statusDurations()) {
+					writeRef(out, duration.status(), strings, table);
+					out.writeLong(duration.days());
+				}
+				StatusTimeline timeline = issue.timeline();
+				out.writeBoolean(timeline.closed());
+				out.writeInt(timeline.size());
+				for (int t = 0; t < timeline.size(); t++) {
+					writeRef(out, timeline.statusName(t), strings, table);
+					out.writeLong(timeline.enter(t));
+					out.writeLong(timeline.exit(t));
+				}
+			}
+
+			ByteArrayOutputStream result = new ByteArrayOutputStream(body.size() + table.size() * 16 + 4);
+			DataOutputStream header = new DataOutputStream(result);
+			header.writeInt(table.size());
+			for (String value : table) {
+				writeString(header, value);
+			}
+			body.writeTo(result);
+			return result.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static List<Issue> decode(ByteBuffer buffer) {
+		String[] table = new String[buffer.getInt()];
+		for (int i = 0; i < table.length; i++) {
+			table[i] = readString(buffer);
+		}
+
+		int count = buffer.getInt();
+		List<Issue> issues = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String key = readRef(buffer, table);
+			LocalDateTime created = readTime(buffer);
+			LocalDateTime resolved = readTime(buffer);
+			String status = readRef(buffer, table);
+			String reporter = readRef(buffer, table);
+			String assignee = readRef(buffer, table);
+			String priority = readRef(buffer, table);
+			int durationCount = buffer.getInt();
+			List<StatusDuration> durations = new ArrayList<>(durationCount);
+			for (int d = 0; d < durationCount; d++) {
+				durations.add(new StatusDuration(readRef(buffer, table), buffer.getLong()));
+			}
+			boolean closed = buffer.get() != 0;
+			int segments = buffer.getInt();
+			String[] statuses = new String[segments];
+			long[] enter = new long[segments];
+			long[] exit = new long[segments];
+			for (int t = 0; t < segments; t++) {
+				statuses[t] = readRef(buffer, table);
+				enter[t] = buffer.getLong();
+				exit[t] = buffer.getLong();
+			}
+			issues.add(new Issue(key, created, resolved, status, reporter, assignee, priority, List.copyOf(durations),
+					StatusTimeline.of(statuses, enter, exit, closed)));
+		}
+		return issues;
+	}
+
+	public static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeRef(DataOutputStream out, String value, Map<String, Integer> strings, List<String> table)
+			throws IOException {
+		if (value == null) {
+			out.writeInt(NO_STRING);
+			return;
+		}
+		Integer ref = strings.get(value);
+		if (ref == null) {
+			ref = table.size();
+			strings.put(value, ref);
+			table.add(value);
+		}
+		out.writeInt(ref);
+	}
+
+	private static String readRef(ByteBuffer buffer, String[] table) {
+		int ref = buffer.getInt();
+		return ref == NO_STRING ? null : table[ref];
+	}
+
+	private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+		out.writeLong(time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC));
+	}
+
+	private static LocalDateTime readTime(ByteBuffer buffer) {
+		long epochSecond = buffer.getLong();
+		return epochSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+	}
+}
@@ -0,0 +1,292 @@
+package com.kzkv.visisis.lab4.store;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+@Slf4j
+@Component
+public class IssueStore {
+
+	private static final int MAGIC = 0x49535332;
+	private static final int HEADER_BYTES = 12;
+	private static final String SEGMENT = "issues.seg";
+
+	private final boolean enabled;
+	private final Path directory;
+	private final long maxSegmentBytes;
+	private final Duration maxAge;
+
+	private final Map<IssueQuery, Entry> index = new ConcurrentHashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private FileChannel channel;
+
+	public IssueStore(
+			@Value("${issue-store.enabled:true}") boolean enabled,
+			@Value("${issue-store.dir:./data/issue-store}") Path directory,
+			@Value("${issue-store.max-segment-size:256MB}") DataSize maxSegmentSize,
+			@Value("${issue-store.max-age:7d}") Duration maxAge) {
+		this.enabled = enabled;
+		this.directory = directory;
+		this.maxSegmentBytes = maxSegmentSize.toBytes();
+		this.maxAge = maxAge;
+	}
+
+	@PostConstruct
+	public void open() throws IOException {
+		if (!enabled) {
+			return;
+		}
+		long started = System.nanoTime();
+		Files.createDirectories(directory);
+		channel = openSegment(directory.resolve(SEGMENT));
+		long size = channel.size();
+		long valid = scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		if (valid < size) {
+			log.warn("Truncating {} bytes of incomplete records from {}", size - valid, directory.resolve(SEGMENT));
+			channel.truncate(valid);
+		}
+		log.info("Issue store opened with {} entries ({} bytes) in {} ms",
+				index.size(), valid, Duration.ofNanos(System.nanoTime() - started).toMillis());
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			if (channel != null) {
+				channel.close();
+				channel = null;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Looks the entry up under the read lock, so a compaction cannot swap the segment between finding the offsets and
+	 * reading them. A record that fails its checksum or does not decode is a miss.
+	 */
+	public Optional<StoredIssues> get(IssueQuery query) {
+		lock.readLock().lock();
+		try {
+			Entry entry = index.get(query);
+			if (channel == null || entry == null || entry.fetchedAt().isBefore(Instant.now().minus(maxAge))) {
+				return Optional.empty();
+			}
+			MappedByteBuffer record = channel.map(FileChannel.MapMode.READ_ONLY, entry.recordOffset(), entry.recordLength());
+			if (record.getInt(0) != MAGIC || record.getInt(4) != entry.recordLength() - HEADER_BYTES
+					|| record.getInt(8) != checksum(record.slice(HEADER_BYTES, entry.recordLength() - HEADER_BYTES))) {
+				log.warn("Ignoring corrupt record of {} in issue store", query);
+				return Optional.empty();
+			}
+			ByteBuffer payload = record.slice((int) (entry.issuesOffset() - entry.recordOffset()), entry.issuesLength());
+			return Optional.of(new StoredIssues(
+					IssueCodec.decode(payload), entry.fetchedAt(), entry.fullSyncAt(), entry.fetchMillis()));
+		} catch (IOException | RuntimeException e) {
+			log.warn("Failed to read {} from issue store", query, e);
+			return Optional.empty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public void put(IssueQuery query, StoredIssues stored) {
+		if (!enabled) {
+			return;
+		}
+		byte[] record = encodeRecord(query, stored);
+		lock.writeLock().lock();
+		try {
+			if (channel == null) {
+				return;
+			}
+			long offset = channel.size();
+			ByteBuffer buffer = ByteBuffer.wrap(record);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, offset + buffer.position());
+			}
+			scan(ByteBuffer.wrap(record), offset);
+			long size = channel.size();
+			if (size > maxSegmentBytes) {
+				Instant cutoff = Instant.now().minus(maxAge);
+				long live = liveBytes(cutoff);
+				if (size >= 2 * live || live > maxSegmentBytes) {
+					compact(cutoff, live);
+				}
+			}
+		} catch (IOException e) {
+			log.warn("Failed to append {} to issue store", query, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private long liveBytes(Instant cutoff) {
+		long live = 0;
+		for (Entry entry : index.values()) {
+			if (!entry.fetchedAt().isBefore(cutoff)) {
+				live += entry.recordLength();
+			}
+		}
+		return live;
+	}
+
+	/**
+	 * Rewrites the segment with only the latest record of each query, dropping records older than
+	 * {@code issue-store.max-age}. When even those exceed {@code issue-store.max-segment-size}, the oldest are evicted
+	 * down to half of it, keeping at least the newest, so the following appends do not trigger another rewrite
+	 * straight away.
+	 */
+	private void compact(Instant cutoff, long live) throws IOException {
+		Path segment = directory.resolve(SEGMENT);
+		Path compacted = directory.resolve(SEGMENT + ".compact");
+		long started = System.nanoTime();
+		long before = channel.size();
+		long budget = live > maxSegmentBytes ? maxSegmentBytes / 2 : Long.MAX_VALUE;
+		List<Entry> newestFirst = index.values().stream()
+				.sorted(Comparator.comparing(Entry::fetchedAt).reversed())
+				.toList();
+
+		int expired = 0;
+		int evicted = 0;
+		long kept = 0;
+		try (FileChannel target = FileChannel.open(compacted,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			for (Entry entry : newestFirst) {
+				if (entry.fetchedAt().isBefore(cutoff)) {
+					expired++;
+					continue;
+				}
+				if (kept > 0 && kept + entry.recordLength() > budget) {
+					evicted++;
+					continue;
+				}
+				ByteBuffer record = channel.map(FileChannel.MapMode.READ_ONLY, entry.recordOffset(), entry.recordLength());
+				while (record.hasRemaining()) {
+					target.write(record);
+				}
+				kept += entry.recordLength();
+			}
+			target.force(true);
+		}
+
+		channel.close();
+		Files.move(compacted, segment, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		channel = openSegment(segment);
+		index.clear();
+		scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		log.info("Compacted issue store from {} to {} bytes in {} ms, dropped {} expired and evicted {} entries",
+				before, channel.size(), Duration.ofNanos(System.nanoTime() - started).toMillis(), expired, evicted);
+	}
+
+	private long scan(ByteBuffer buffer) {
+		return scan(buffer, 0);
+	}
+
+	private long scan(ByteBuffer buffer, long baseOffset) {
+		int position = 0;
+		while (buffer.limit() - position >= HEADER_BYTES) {
+			if (buffer.getInt(position) != MAGIC) {
+				break;
+			}
+			int length = buffer.getInt(position + 4);
+			int checksum = buffer.getInt(position + 8);
+			int payloadStart = position + HEADER_BYTES;
+			if (length < 0 || buffer.limit() - payloadStart < length) {
+				break;
+			}
+
+			ByteBuffer payload = buffer.slice(payloadStart, length);
+			if (checksum(payload) != checksum) {
+				break;
+			}
+
+			Instant fetchedAt = Instant.ofEpochMilli(payload.getLong());
+			Instant fullSyncAt = Instant.ofEpochMilli(payload.getLong());
+			long fetchMillis = payload.getLong();
+			int maxResults = payload.getInt();
+			String jql = IssueCodec.readString(payload);
+			IssueQuery query = new IssueQuery(jql, maxResults);
+			index.put(query, new Entry(
+					baseOffset + position,
+					HEADER_BYTES + length,
+					baseOffset + payloadStart + payload.position(),
+					length - payload.position(),
+					fetchedAt,
+					fullSyncAt,
+					fetchMillis
+			));
+			position = payloadStart + length;
+		}
+		return baseOffset + position;
+	}
+
+	private static int checksum(ByteBuffer payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload.duplicate());
+		return (int) crc.getValue();
+	}
+
+	private static byte[] encodeRecord(IssueQuery query, StoredIssues stored) {
+		try {
+			byte[] issues = IssueCodec.encode(stored.issues());
+			ByteArrayOutputStream payload = new ByteArrayOutputStream(issues.length + 64);
+			DataOutputStream out = new DataOutputStream(payload);
+			out.writeLong(stored.fetchedAt().toEpochMilli());
+			out.writeLong(stored.fullSyncAt().toEpochMilli());
+			out.writeLong(stored.fetchMillis());
+			out.writeInt(query.maxResults());
+			IssueCodec.writeString(out, query.jql());
+			out.write(issues);
+
+			byte[] bytes = payload.toByteArray();
+			CRC32 crc = new CRC32();
+			crc.update(bytes);
+
+			ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + HEADER_BYTES);
+			DataOutputStream header = new DataOutputStream(record);
+			header.writeInt(MAGIC);
+			header.writeInt(bytes.length);
+			header.writeInt((int) crc.getValue());
+			header.write(bytes);
+			return record.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static FileChannel openSegment(Path segment) throws IOException {
+		return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	private record Entry(long recordOffset, int recordLength, long issuesOffset, int issuesLength,
+						 Instant fetchedAt, Instant fullSyncAt, long fetchMillis) {}
+}
@@ -0,0 +1,17 @@
+package com.kzkv.visisis.lab4.store;
+
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+
+import java.util.Optional;
+
+/**
+ * Issue lists shared between application replicas. Implementations must be safe to call from several
+ * processes at once and must never return a partially written entry.
+ */
+public interface SecondLevelCache {
+
+	Optional<StoredIssues> get(IssueQuery query);
+
+	void put(IssueQuery query, StoredIssues stored);
+
+}
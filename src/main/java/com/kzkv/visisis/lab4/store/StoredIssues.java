@@ -0,0 +1,8 @@
+package com.kzkv.visisis.lab4.store;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+
+import java.time.Instant;
+import java.util.List;
+
+public record StoredIssues(List<Issue> issues, Instant fetchedAt, Instant fullSyncAt, long fetchMillis) {}
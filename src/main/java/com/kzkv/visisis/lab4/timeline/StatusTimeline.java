@@ -0,0 +1,197 @@
+package com.kzkv.visisis.lab4.timeline;
+
+import com.kzkv.visisis.lab4.dto.StatusChange;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class StatusTimeline {
+
+	public static final StatusTimeline EMPTY = new StatusTimeline(new String[0], new long[0], new long[0], false);
+
+	private static final long SECONDS_PER_DAY = 86_400;
+
+	private final String[] statuses;
+	private final long[] enter;
+	private final long[] exit;
+	private final boolean closed;
+
+	private StatusTimeline(String[] statuses, long[] enter, long[] exit, boolean closed) {
+		this.statuses = statuses;
+		this.enter = enter;
+		this.exit = exit;
+		this.closed = closed;
+	}
+
+	public static StatusTimeline of(String[] statuses, long[] enter, long[] exit, boolean closed) {
+		if (statuses.length != enter.length || statuses.length != exit.length) {
+			throw new IllegalArgumentException("Timeline columns differ in length");
+		}
+		return statuses.length == 0 && !closed ? EMPTY : new StatusTimeline(statuses, enter, exit, closed);
+	}
+
+	public static StatusTimeline of(LocalDateTime created, LocalDateTime resolved, String currentStatus,
+									List<StatusChange> changes) {
+		if (created == null || changes == null) {
+			return EMPTY;
+		}
+
+		List<StatusChange> sorted = changes;
+		for (int i = 1; i < sorted.size(); i++) {
+			if (sorted.get(i).at().isBefore(sorted.get(i - 1).at())) {
+				sorted = new ArrayList<>(sorted);
+				sorted.sort(Comparator.comparing(StatusChange::at));
+				break;
+			}
+		}
+
+		int capacity = sorted.size() + 1;
+		String[] statuses = new String[capacity];
+		long[] enter = new long[capacity];
+		long[] exit = new long[capacity];
+		int count = 0;
+
+		long lastTime = epochSecond(created);
+		for (StatusChange change : sorted) {
+			long changeTime = epochSecond(change.at());
+			if (changeTime < lastTime) continue;
+
+			if (change.from() != null) {
+				statuses[count] = change.from();
+				enter[count] = lastTime;
+				exit[count] = changeTime;
+				count++;
+			}
+			lastTime = changeTime;
+			currentStatus = change.to();
+		}
+
+		boolean closed = resolved != null;
+		if (closed) {
+			long resolvedAt = epochSecond(resolved);
+			if (lastTime <= resolvedAt) {
+				statuses[count] = currentStatus;
+				enter[count] = lastTime;
+				exit[count] = resolvedAt;
+				count++;
+			}
+		}
+
+		return of(Arrays.copyOf(statuses, count), Arrays.copyOf(enter, count), Arrays.copyOf(exit, count), closed);
+	}
+
+	public int size() {
+		return statuses.length;
+	}
+
+	public boolean closed() {
+		return closed;
+	}
+
+	public String statusName(int segment) {
+		return statuses[segment];
+	}
+
+	public long enter(int segment) {
+		return enter[segment];
+	}
+
+	public long exit(int segment) {
+		return exit[segment];
+	}
+
+	public long seconds(int segment) {
+		return exit[segment] - enter[segment];
+	}
+
+	public long secondsIn(String status) {
+		long seconds = 0;
+		if (status == null) {
+			return seconds;
+		}
+		for (int i = 0; i < statuses.length; i++) {
+			if (status.equals(statuses[i])) {
+				seconds += exit[i] - enter[i];
+			}
+		}
+		return seconds;
+	}
+
+	public int indexOf(String status) {
+		if (status == null) {
+			return -1;
+		}
+		for (int i = 0; i < statuses.length; i++) {
+			if (status.equals(statuses[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Whole days per status, summed over the segments of a resolved issue and listed in order of first appearance.
+	 */
+	public List<StatusDuration> toStatusDurations() {
+		if (!closed) {
+			return List.of();
+		}
+		Map<String, Long> days = new LinkedHashMap<>();
+		for (int i = 0; i < statuses.length; i++) {
+			if (statuses[i] != null) {
+				days.merge(statuses[i], seconds(i) / SECONDS_PER_DAY, Long::sum);
+			}
+		}
+		return days.entrySet().stream()
+				.map(e -> new StatusDuration(e.getKey(), e.getValue()))
+				.toList();
+	}
+
+	public Map<String, Long> secondsByStatus() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (int i = 0; i < statuses.length; i++) {
+			if (statuses[i] != null) {
+				result.merge(statuses[i], seconds(i), Long::sum);
+			}
+		}
+		return result;
+	}
+
+	private static long epochSecond(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return this == o || o instanceof StatusTimeline other
+				&& closed == other.closed
+				&& Arrays.equals(statuses, other.statuses)
+				&& Arrays.equals(enter, other.enter)
+				&& Arrays.equals(exit, other.exit);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Boolean.hashCode(closed);
+		result = 31 * result + Arrays.hashCode(statuses);
+		result = 31 * result + Arrays.hashCode(enter);
+		return 31 * result + Arrays.hashCode(exit);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("StatusTimeline[");
+		for (int i = 0; i < statuses.length; i++) {
+			if (i > 0) result.append(", ");
+			result.append(statusName(i)).append(' ').append(seconds(i)).append('s');
+		}
+		return result.append(closed ? "; closed]" : "]").toString();
+	}
+}
@@ -0,0 +1,72 @@
+package com.kzkv.visisis.lab4;
+
+import com.kzkv.visisis.lab4.resilience.CircuitOpenException;
+import com.kzkv.visisis.lab4.service.CacheWarmer;
+import com.kzkv.visisis.lab4.service.DashboardResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardApiControllerTest {
+
+    @Mock
+    private DashboardResponseCache responseCache;
+
+    @Mock
+    private CacheWarmer cacheWarmer;
+
+    private DashboardApiController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new DashboardApiController(responseCache, cacheWarmer);
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenAPageFetchFailedOnAnotherThread() {
+        when(responseCache.dashboard("PROJ", 200, null, null)).thenThrow(
+                new CompletionException(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null)));
+
+        assertThatThrownBy(() -> controller.dashboard("PROJ", 200, null, null, null, null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenCircuitIsOpen() {
+        when(responseCache.dashboard("PROJ", 200, null, null)).thenThrow(new CircuitOpenException("open", null));
+
+        assertThatThrownBy(() -> controller.dashboard("PROJ", 200, null, null, null, null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void shouldAnswerBadRequestForInvalidRange() {
+        when(responseCache.dashboard("PROJ", 200, null, null)).thenThrow(new IllegalArgumentException("bad range"));
+
+        assertThatThrownBy(() -> controller.dashboard("PROJ", 200, null, null, null, null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void shouldLeaveOtherFailuresToTheDefaultHandler() {
+        when(responseCache.dashboard("PROJ", 200, null, null)).thenThrow(new CompletionException(new IllegalStateException("bug")));
+
+        assertThatThrownBy(() -> controller.dashboard("PROJ", 200, null, null, null, null))
+                .isInstanceOf(CompletionException.class);
+    }
+}
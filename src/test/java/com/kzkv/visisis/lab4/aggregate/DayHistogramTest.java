@@ -0,0 +1,77 @@
+package com.kzkv.visisis.lab4.aggregate;
+
+import com.kzkv.visisis.lab4.dto.BinCount;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DayHistogramTest {
+
+    @Test
+    void shouldEmitBinsSortedByDayIncludingOutliers() {
+        DayHistogram histogram = new DayHistogram();
+        histogram.add(10);
+        histogram.add(2);
+        histogram.add(-3);
+        histogram.add(2);
+        histogram.add(1_000_000);
+        histogram.add(500);
+
+        assertThat(histogram.toBins(Bucketing.identity())).containsExactly(
+                new BinCount("-3", 1),
+                new BinCount("2", 2),
+                new BinCount("10", 1),
+                new BinCount("500", 1),
+                new BinCount("1000000", 1)
+        );
+    }
+
+    @Test
+    void shouldGroupIntoFixedWidthAndLogBuckets() {
+        DayHistogram histogram = new DayHistogram();
+        for (int day = 0; day < 10; day++) {
+            histogram.add(day);
+        }
+
+        assertThat(histogram.toBins(Bucketing.fixedWidth(7))).containsExactly(
+                new BinCount("0-6", 7),
+                new BinCount("7-13", 3)
+        );
+        assertThat(histogram.toBins(Bucketing.log2())).containsExactly(
+                new BinCount("0", 1),
+                new BinCount("1", 1),
+                new BinCount("2-3", 2),
+                new BinCount("4-7", 4),
+                new BinCount("8-15", 2)
+        );
+    }
+
+    @Test
+    void shouldMergeAndDropEmptyBins() {
+        DayHistogram first = new DayHistogram();
+        first.add(1);
+        first.add(-5);
+        DayHistogram second = new DayHistogram();
+        second.add(1);
+        second.add(200_000);
+        second.add(3, -1);
+        first.add(3);
+
+        first.merge(second);
+
+        assertThat(first.count(1)).isEqualTo(2);
+        assertThat(first.toBins(Bucketing.identity())).containsExactly(
+                new BinCount("-5", 1),
+                new BinCount("1", 2),
+                new BinCount("200000", 1)
+        );
+    }
+
+    @Test
+    void shouldParseBucketingSpecs() {
+        assertThat(Bucketing.parse("fixed:30").label(1)).isEqualTo("30-59");
+        assertThat(Bucketing.parse("LOG2").label(-1)).isEqualTo("<0");
+        assertThrows(IllegalArgumentException.class, () -> Bucketing.parse("weekly"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.kzkv.visisis.lab4.aggregate;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantileSketchTest {
+
+    @Test
+    void shouldReportQuantilesWithinRelativeError() {
+        SplittableRandom random = new SplittableRandom(7);
+        long[] values = new long[100_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (-Math.log(1 - random.nextDouble()) * 5 * 86_400);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertThat((double) sketch.quantile(q)).isCloseTo(exact, within(exact * 0.02));
+        }
+        assertThat(sketch.count()).isEqualTo(values.length);
+    }
+
+    @Test
+    void shouldCountSmallValuesExactly() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (long value = 1; value <= 10; value++) {
+            sketch.add(value);
+        }
+
+        assertThat(sketch.quantile(0.5)).isEqualTo(5);
+        assertThat(sketch.quantile(1.0)).isEqualTo(10);
+    }
+
+    @Test
+    void mergeAndSerializationShouldPreserveQuantiles() throws IOException {
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        QuantileSketch all = new QuantileSketch();
+        for (long value = 0; value < 50_000; value += 7) {
+            (value % 2 == 0 ? first : second).add(value * 13);
+            all.add(value * 13);
+        }
+
+        first.merge(second);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        first.write(new DataOutputStream(bytes));
+        QuantileSketch restored = QuantileSketch.read(ByteBuffer.wrap(bytes.toByteArray()));
+
+        for (double q : new double[]{0.01, 0.5, 0.9, 0.99, 1.0}) {
+            assertThat(restored.quantile(q)).isEqualTo(all.quantile(q));
+        }
+        assertThat(restored.count()).isEqualTo(all.count());
+    }
+
+    @Test
+    void removeShouldTakeBackEarlierAdds() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (long value = 1; value <= 10; value++) {
+            sketch.add(value);
+        }
+
+        sketch.remove(10);
+        sketch.remove(1);
+
+        assertThat(sketch.count()).isEqualTo(8);
+        assertThat(sketch.quantile(0.0)).isEqualTo(2);
+        assertThat(sketch.quantile(1.0)).isEqualTo(9);
+        assertThatThrownBy(() -> sketch.remove(10)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
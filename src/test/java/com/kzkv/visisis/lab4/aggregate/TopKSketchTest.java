@@ -0,0 +1,63 @@
+package com.kzkv.visisis.lab4.aggregate;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKSketchTest {
+
+    @Test
+    void shouldKeepHeavyHittersWithBoundedCounters() {
+        TopKSketch sketch = new TopKSketch(16);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add("user-" + (i % 1_000));
+            if (i % 2 == 0) sketch.add("alice");
+            if (i % 4 == 0) sketch.add("bob");
+        }
+
+        List<TopKSketch.Estimate> top = sketch.top(2);
+
+        assertThat(sketch.size()).isEqualTo(16);
+        assertThat(top).extracting(TopKSketch.Estimate::key).containsExactly("alice", "bob");
+        assertThat(top.get(0).count() - top.get(0).error()).isLessThanOrEqualTo(5_000);
+        assertThat(top.get(0).count()).isGreaterThanOrEqualTo(5_000);
+    }
+
+    @Test
+    void shouldBeExactBelowCapacityAndBreakTiesByKey() {
+        TopKSketch sketch = new TopKSketch(8);
+        sketch.add("carol", 2);
+        sketch.add("bob", 3);
+        sketch.add("alice", 3);
+
+        assertThat(sketch.top(3)).containsExactly(
+                new TopKSketch.Estimate("alice", 3, 0),
+                new TopKSketch.Estimate("bob", 3, 0),
+                new TopKSketch.Estimate("carol", 2, 0));
+    }
+
+    @Test
+    void mergeAndSerializationShouldCombineCounts() throws IOException {
+        TopKSketch first = new TopKSketch(8);
+        TopKSketch second = new TopKSketch(8);
+        first.add("alice", 5);
+        first.add("bob", 1);
+        second.add("alice", 2);
+        second.add("carol", 4);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        first.merge(second).write(new DataOutputStream(bytes));
+        TopKSketch restored = TopKSketch.read(ByteBuffer.wrap(bytes.toByteArray()));
+
+        assertThat(restored.top(3)).containsExactly(
+                new TopKSketch.Estimate("alice", 7, 0),
+                new TopKSketch.Estimate("carol", 4, 0),
+                new TopKSketch.Estimate("bob", 1, 0));
+    }
+}
@@ -0,0 +1,105 @@
+package com.kzkv.visisis.lab4.columnar;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusChange;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import com.kzkv.visisis.lab4.service.DashboardSnapshot;
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssueTableTest {
+
+    private final List<Issue> issues = List.of(
+            new Issue("PROJ-1", LocalDateTime.of(2024, 6, 1, 10, 0), LocalDateTime.of(2024, 6, 5, 14, 0),
+                    "Closed", "Alice", "Bob", "High",
+                    List.of(new StatusDuration("Open", 2), new StatusDuration("In Progress", 2))),
+            new Issue("PROJ-2", LocalDateTime.of(2024, 6, 2, 9, 0), LocalDateTime.of(2024, 6, 6, 11, 0),
+                    "Closed", "Charlie", "Bob", "Medium",
+                    List.of(new StatusDuration("In Progress", 3), new StatusDuration("Closed", 1))),
+            new Issue("PROJ-3", LocalDateTime.of(2024, 6, 3, 10, 0), null,
+                    "Open", "Alice", null, null, List.of())
+    );
+
+    @Test
+    void shouldRoundTripIssues() {
+        IssueTable table = IssueTable.of(issues);
+
+        assertThat(table).hasSize(3).containsExactlyElementsOf(issues);
+        assertThat(table.users().size()).isEqualTo(3);
+        assertThat(IssueTable.of(table)).isSameAs(table);
+    }
+
+    @Test
+    void shouldRoundTripStatusTimelines() {
+        LocalDateTime created = LocalDateTime.of(2024, 6, 1, 10, 0);
+        LocalDateTime resolved = LocalDateTime.of(2024, 6, 4, 10, 0);
+        Issue withTimeline = new Issue("PROJ-4", created, resolved, "Closed", "Alice", "Bob", "High",
+                StatusTimeline.of(created, resolved, "Closed", List.of(
+                        new StatusChange(created.plusHours(12), "Open", "In Progress"),
+                        new StatusChange(created.plusDays(2), "In Progress", "Closed"))));
+        List<Issue> mixed = List.of(issues.get(0), withTimeline, issues.get(2));
+
+        IssueTable table = IssueTable.of(mixed);
+
+        assertThat(table).containsExactlyElementsOf(mixed);
+        assertThat(table.timelineEnd(1) - table.timelineStart(1)).isEqualTo(3);
+        assertThat(table.timeline(0)).isEqualTo(StatusTimeline.EMPTY);
+    }
+
+    @Test
+    void shouldDeriveDurationsFromTimelineColumns() {
+        LocalDateTime created = LocalDateTime.of(2024, 6, 1, 10, 0);
+        LocalDateTime resolved = LocalDateTime.of(2024, 6, 4, 10, 0);
+        Issue withTimeline = new Issue("PROJ-4", created, resolved, "Closed", "Alice", "Bob", "High",
+                StatusTimeline.of(created, resolved, "Closed", List.of(
+                        new StatusChange(created.plusHours(12), "Open", "In Progress"),
+                        new StatusChange(created.plusDays(2), "In Progress", "Closed"))));
+        IssueTable table = IssueTable.of(List.of(issues.get(1), withTimeline));
+
+        int[] codes = new int[table.statuses().size()];
+        long[] days = new long[codes.length];
+        int count = table.durations(1, codes, days);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(table.statuses().decode(codes[1])).isEqualTo("In Progress");
+        assertThat(days[1]).isEqualTo(1);
+        assertThat(table.timelineStatus(table.timelineStart(1) + 1)).isEqualTo(table.statuses().lookup("In Progress"));
+        assertThat(table.durations(0, codes, days)).isEqualTo(2);
+        assertThat(table.statuses().decode(codes[0])).isEqualTo("In Progress");
+        assertThat(days[0]).isEqualTo(3);
+    }
+
+    @Test
+    void shouldGrowBeyondInitialCapacity() {
+        IssueTable.Builder builder = new IssueTable.Builder(1);
+        List<Issue> many = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Issue issue = issues.get(i % issues.size());
+            many.add(issue);
+            builder.add(issue);
+        }
+
+        assertThat(builder.build()).containsExactlyElementsOf(many);
+    }
+
+    @Test
+    void shouldAggregateColumnsLikeIssues() {
+        DashboardSnapshot fromIssues = new DashboardSnapshot();
+        fromIssues.addClosed(new ArrayList<>(issues));
+        fromIssues.addDated(new ArrayList<>(issues));
+        fromIssues.addAny(new ArrayList<>(issues));
+
+        DashboardSnapshot fromColumns = new DashboardSnapshot();
+        fromColumns.addClosed(IssueTable.of(issues));
+        fromColumns.addDated(IssueTable.of(issues));
+        fromColumns.addAny(IssueTable.of(issues));
+
+        assertThat(fromColumns.toData()).isEqualTo(fromIssues.toData());
+    }
+}
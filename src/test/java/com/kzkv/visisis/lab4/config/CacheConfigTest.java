@@ -0,0 +1,96 @@
+package com.kzkv.visisis.lab4.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(10);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CacheLoader<Object, Object> loader = key -> {
+        int load = loads.incrementAndGet();
+        return Collections.nCopies(((IssueQuery) key).maxResults(), "load " + load);
+    };
+
+    @Test
+    void shouldHitForEqualQuery() {
+        LoadingCache<Object, Object> cache = cache(1_000, Runnable::run);
+
+        Object first = cache.get(new IssueQuery("project = \"PROJ\"", 2));
+        Object second = cache.get(new IssueQuery("project = \"PROJ\"", 2));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeStaleValueWhileRefreshing() {
+        Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        LoadingCache<Object, Object> cache = cache(1_000, pending::add);
+        IssueQuery query = new IssueQuery("project = \"PROJ\"", 1);
+        assertThat(cache.get(query)).isEqualTo(List.of("load 1"));
+
+        nanos.addAndGet(REFRESH_AFTER.plusMinutes(1).toNanos());
+
+        assertThat(cache.get(query)).isEqualTo(List.of("load 1"));
+        assertThat(loads).hasValue(1);
+
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            task.run();
+        }
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get(query)).isEqualTo(List.of("load 2"));
+    }
+
+    @Test
+    void shouldLoadAgainOnceExpired() {
+        LoadingCache<Object, Object> cache = cache(1_000, Runnable::run);
+        IssueQuery query = new IssueQuery("project = \"PROJ\"", 1);
+        cache.get(query);
+
+        nanos.addAndGet(TTL.plusMinutes(1).toNanos());
+
+        assertThat(cache.get(query)).isEqualTo(List.of("load 2"));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldEvictByIssueCount() {
+        LoadingCache<Object, Object> cache = cache(10, Runnable::run);
+
+        cache.get(new IssueQuery("project = \"A\"", 6));
+        cache.get(new IssueQuery("project = \"B\"", 6));
+        cache.cleanUp();
+
+        assertThat(cache.estimatedSize()).isEqualTo(1);
+        assertThat(cache.policy().eviction().orElseThrow().weightedSize()).hasValue(6);
+        assertThat(cache.stats().evictionCount()).isEqualTo(1);
+        assertThat(cache.stats().evictionWeight()).isEqualTo(6);
+    }
+
+    private LoadingCache<Object, Object> cache(long maxIssues, TaskExecutor executor) {
+        return new CacheConfig().issuesCaffeine(maxIssues, TTL, REFRESH_AFTER, executor)
+                .ticker(nanos::get)
+                .build(loader);
+    }
+}
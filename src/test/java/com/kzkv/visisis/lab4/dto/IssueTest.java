@@ -53,6 +53,8 @@ class IssueTest {
         assertThat(issue.priority()).isEqualTo("High");
 
         assertThat(issue.statusDurations()).hasSize(3);
+        assertThat(issue.timeline().size()).isEqualTo(3);
+        assertThat(issue.timeline().statusName(1)).isEqualTo("In Progress");
     }
 
     @Test
@@ -0,0 +1,121 @@
+package com.kzkv.visisis.lab4.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class JiraInterceptorsTest {
+
+    private static final String URL = "https://jira.example.org/rest/api/2/search";
+    private static final String JSON = "{\"startAt\":0,\"total\":1,\"issues\":[{\"key\":\"PROJ-1\"}]}";
+
+    private final ResponseDeadlineInterceptor deadline = new ResponseDeadlineInterceptor(Duration.ofSeconds(5));
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer server;
+
+    JiraInterceptorsTest() {
+        restTemplate.setInterceptors(List.of(deadline, new GzipRequestInterceptor()));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        deadline.close();
+    }
+
+    @Test
+    void shouldNegotiateGzipAndInflateBody() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        server.expect(requestTo(URL))
+                .andExpect(header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andRespond(withSuccess(gzip(JSON), MediaType.APPLICATION_JSON).headers(headers));
+
+        String body = restTemplate.execute(URL, HttpMethod.GET, null,
+                response -> {
+                    assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+                    return new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+                });
+
+        assertThat(body).isEqualTo(JSON);
+        server.verify();
+    }
+
+    @Test
+    void shouldPassThroughUncompressedBody() {
+        server.expect(requestTo(URL)).andRespond(withSuccess(JSON, MediaType.APPLICATION_JSON));
+
+        assertThat(restTemplate.getForObject(URL, String.class)).isEqualTo(JSON);
+    }
+
+    @Test
+    void shouldFailBlockedReadWithTimeoutAtTheDeadline() throws IOException {
+        try (ResponseDeadlineInterceptor shortDeadline = new ResponseDeadlineInterceptor(Duration.ofMillis(100))) {
+            BlockingInputStream stalled = new BlockingInputStream();
+            ClientHttpResponse response = shortDeadline.intercept(new MockClientHttpRequest(), new byte[0],
+                    (request, body) -> new MockClientHttpResponse(stalled, HttpStatus.OK));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThatThrownBy(() -> response.getBody().read())
+                    .isInstanceOf(SocketTimeoutException.class));
+            assertThat(stalled.closed.getCount()).isZero();
+            response.close();
+            assertThatThrownBy(() -> response.getBody().read()).isInstanceOf(SocketTimeoutException.class);
+        }
+    }
+
+    /**
+     * A body whose reads block until it is closed from another thread, like a stalled connection.
+     */
+    private static final class BlockingInputStream extends InputStream {
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Stream closed");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static byte[] gzip(String value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
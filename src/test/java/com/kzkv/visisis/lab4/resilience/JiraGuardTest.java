@@ -0,0 +1,72 @@
+package com.kzkv.visisis.lab4.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JiraGuardTest {
+
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 8, Duration.ofSeconds(1));
+    private final JiraGuard guard = new JiraGuard(
+            new CircuitBreaker(10, 3, 0.5, Duration.ofMinutes(1)),
+            limiter,
+            new Backoff(Duration.ofMillis(1), Duration.ofMillis(5)),
+            3);
+
+    @Test
+    void shouldRetryTransientFailuresAndShrinkLimit() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = guard.call("test", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ResourceAccessException("connection reset");
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(3);
+        assertThat(guard.retries()).isEqualTo(2);
+        assertThat(limiter.limit()).isLessThan(8);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldNotRetryClientErrors() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> guard.call("test", () -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null);
+        })).isInstanceOf(HttpClientErrorException.BadRequest.class);
+
+        assertThat(calls).hasValue(1);
+        assertThat(guard.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldFailFastOnceCircuitOpens() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> guard.call("test", () -> {
+            calls.incrementAndGet();
+            throw HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null);
+        })).isInstanceOf(HttpServerErrorException.class);
+        assertThatThrownBy(() -> guard.call("test", () -> {
+            calls.incrementAndGet();
+            return "ok";
+        })).isInstanceOf(CircuitOpenException.class);
+
+        assertThat(calls).hasValue(3);
+        assertThat(guard.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(guard.rejected()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import com.kzkv.visisis.lab4.service.CacheWarmer.ProjectRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final Map<Object, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final LoadingCache<Object, Object> cache = Caffeine.newBuilder()
+            .executor(Runnable::run)
+            .build(key -> {
+                loads.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                return List.of();
+            });
+
+    private CacheWarmer cacheWarmer;
+
+    @BeforeEach
+    void setUp() {
+        cacheWarmer = new CacheWarmer(cacheManager, new SyncTaskExecutor(), taskScheduler);
+        ReflectionTestUtils.setField(cacheWarmer, "enabled", true);
+        ReflectionTestUtils.setField(cacheWarmer, "hotProjects", 2);
+        ReflectionTestUtils.setField(cacheWarmer, "maxTracked", 100);
+        ReflectionTestUtils.setField(cacheWarmer, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(cacheWarmer, "jitter", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(cacheWarmer, "startupProjects", List.of("KAFKA", "SPARK"));
+        ReflectionTestUtils.setField(cacheWarmer, "startupMaxResults", 50);
+        ReflectionTestUtils.setField(cacheWarmer, "startupTimeout", Duration.ofSeconds(5));
+        cacheWarmer.init();
+    }
+
+    @Test
+    void hotProjects_ShouldRankByDemandAndSkipInvalidKeys() {
+        for (int i = 0; i < 3; i++) cacheWarmer.recordRequest("KAFKA", 200);
+        cacheWarmer.recordRequest("SPARK", 200);
+        cacheWarmer.recordRequest("FLINK", 200);
+        cacheWarmer.recordRequest("FLINK", 200);
+        cacheWarmer.recordRequest("BAD KEY", 200);
+
+        assertThat(cacheWarmer.hotProjects())
+                .containsExactly(new ProjectRequest("KAFKA", 200), new ProjectRequest("FLINK", 200));
+    }
+
+    @Test
+    void refreshHotProjects_ShouldScheduleEachHotProjectOnceAndDecayDemand() {
+        cacheWarmer.recordRequest("KAFKA", 200);
+        cacheWarmer.recordRequest("KAFKA", 200);
+
+        cacheWarmer.refreshHotProjects();
+        cacheWarmer.refreshHotProjects();
+
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+        cacheWarmer.refreshHotProjects();
+        assertThat(cacheWarmer.hotProjects()).isEmpty();
+    }
+
+    @Test
+    void run_ShouldLoadAllDashboardQueriesOfStartupProjects() throws Exception {
+        when(cacheManager.getCache("issues")).thenReturn(new CaffeineCache("issues", cache));
+
+        cacheWarmer.run(null);
+
+        assertThat(loads).containsOnlyKeys(
+                new IssueQuery(Jql.closed("KAFKA"), 50),
+                new IssueQuery(Jql.createdOrResolved("KAFKA"), 50),
+                new IssueQuery(Jql.project("KAFKA"), 50),
+                new IssueQuery(Jql.closed("SPARK"), 50),
+                new IssueQuery(Jql.createdOrResolved("SPARK"), 50),
+                new IssueQuery(Jql.project("SPARK"), 50));
+    }
+}
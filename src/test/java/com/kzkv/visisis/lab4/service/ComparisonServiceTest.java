@@ -0,0 +1,129 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.BinCount;
+import com.kzkv.visisis.lab4.dto.ComparisonData;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ComparisonServiceTest {
+
+    @Mock
+    private ProjectSnapshots projectSnapshots;
+
+    private ComparisonService comparisonService;
+
+    @BeforeEach
+    void setUp() {
+        comparisonService = new ComparisonService(projectSnapshots, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(comparisonService, "concurrency", 2);
+        ReflectionTestUtils.setField(comparisonService, "maxProjects", 3);
+        ReflectionTestUtils.setField(comparisonService, "pageTimeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void compare_ShouldMergeProjectsAndAlignSideBySideSeries() {
+        DashboardSnapshot alpha = snapshot(issue("ALPHA-1", "High", 2), issue("ALPHA-2", "Low", 2));
+        DashboardSnapshot beta = snapshot(issue("BETA-1", "High", 5));
+        when(projectSnapshots.get("ALPHA", 100)).thenReturn(alpha);
+        when(projectSnapshots.get("BETA", 100)).thenReturn(beta);
+        when(projectSnapshots.get("GAMMA", 100)).thenThrow(new IllegalStateException("Jira is down"));
+
+        ComparisonData data = comparisonService.compare(List.of("ALPHA", "BETA", "GAMMA"), 100);
+
+        assertThat(data.projects()).containsExactly("ALPHA", "BETA");
+        assertThat(data.unavailable()).containsExactly("GAMMA");
+        assertThat(data.combined().get(DashboardWidget.PRIORITY.getAttribute()))
+                .isEqualTo(List.of(new BinCount("High", 2), new BinCount("Low", 1)));
+
+        var priority = data.sideBySide().get(DashboardWidget.PRIORITY.getAttribute());
+        assertThat(priority.labels()).containsExactly("High", "Low");
+        assertThat(priority.counts()).containsEntry("ALPHA", List.of(1, 1)).containsEntry("BETA", List.of(1, 0));
+
+        var timeToClose = data.sideBySide().get(DashboardWidget.TIME_TO_CLOSE.getAttribute());
+        int two = timeToClose.labels().indexOf("2");
+        int five = timeToClose.labels().indexOf("5");
+        assertThat(timeToClose.counts().get("ALPHA").get(two)).isEqualTo(2);
+        assertThat(timeToClose.counts().get("BETA").get(five)).isEqualTo(1);
+    }
+
+    @Test
+    void compare_ShouldNotMutateCachedProjectSnapshots() {
+        DashboardSnapshot alpha = snapshot(issue("ALPHA-1", "High", 2));
+        DashboardSnapshot beta = snapshot(issue("BETA-1", "High", 5));
+        when(projectSnapshots.get("ALPHA", 100)).thenReturn(alpha);
+        when(projectSnapshots.get("BETA", 100)).thenReturn(beta);
+
+        ComparisonData first = comparisonService.compare(List.of("ALPHA", "BETA"), 100);
+        ComparisonData second = comparisonService.compare(List.of("ALPHA", "BETA"), 100);
+
+        assertThat(second.combined()).isEqualTo(first.combined());
+        assertThat(alpha.getPriorities()).containsExactly(new BinCount("High", 1));
+    }
+
+    @Test
+    void compare_ShouldInterruptLoadsThatMissTheDeadline() throws InterruptedException {
+        comparisonService = new ComparisonService(projectSnapshots, new VirtualThreadTaskExecutor("compare-test-"));
+        ReflectionTestUtils.setField(comparisonService, "concurrency", 1);
+        ReflectionTestUtils.setField(comparisonService, "maxProjects", 3);
+        ReflectionTestUtils.setField(comparisonService, "pageTimeout", Duration.ofMillis(200));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(projectSnapshots.get(anyString(), eq(100))).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(Duration.ofMinutes(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return null;
+        });
+
+        ComparisonData data = comparisonService.compare(List.of("SLOW", "QUEUED"), 100);
+
+        assertThat(data.projects()).isEmpty();
+        assertThat(data.unavailable()).containsExactly("SLOW", "QUEUED");
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void compare_ShouldRejectTooManyOrInvalidProjects() {
+        assertThatThrownBy(() -> comparisonService.compare(List.of("A", "B", "C", "D"), 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> comparisonService.compare(List.of("A\" OR 1=1"), 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Issue issue(String key, String priority, int days) {
+        LocalDateTime created = LocalDateTime.of(2024, 6, 1, 10, 0);
+        return new Issue(key, created, created.plusDays(days), "Closed", "Alice", "Bob", priority,
+                List.of(new StatusDuration("In Progress", days)));
+    }
+
+    private static DashboardSnapshot snapshot(Issue... issues) {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.addClosed(List.of(issues));
+        snapshot.addDated(List.of(issues));
+        snapshot.addAny(List.of(issues));
+        return snapshot;
+    }
+}
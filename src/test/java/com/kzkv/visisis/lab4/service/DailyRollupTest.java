@@ -0,0 +1,193 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.aggregate.Bucketing;
+import com.kzkv.visisis.lab4.dto.BinCount;
+import com.kzkv.visisis.lab4.dto.DailyStats;
+import com.kzkv.visisis.lab4.dto.DashboardData;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator;
+import com.kzkv.visisis.lab4.service.IssueAggregate.Source;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DailyRollupTest {
+
+    @Test
+    void unboundedRangeShouldMatchFullSnapshot() {
+        List<Issue> issues = new JiraPayloadGenerator().issues(2_000, 5);
+        List<Issue> closed = issues.stream().filter(issue -> issue.resolved() != null).toList();
+        Bucketing bucketing = Bucketing.parse("log2");
+
+        DashboardSnapshot snapshot = new DashboardSnapshot(bucketing);
+        snapshot.addClosed(closed);
+        snapshot.addDated(issues);
+        snapshot.addAny(issues);
+
+        DailyRollup rollup = DailyRollup.of(bucketing, false, closed, issues, issues);
+
+        assertThat(rollup.range(null, null).toData()).isEqualTo(snapshot.toData());
+    }
+
+    @Test
+    void rangeShouldOnlyCountDaysInsideWindow() {
+        Issue early = issue("PROJ-1", LocalDateTime.of(2024, 1, 10, 9, 0), LocalDateTime.of(2024, 1, 12, 9, 0), "High");
+        Issue late = issue("PROJ-2", LocalDateTime.of(2024, 1, 11, 9, 0), LocalDateTime.of(2024, 3, 1, 9, 0), "Low");
+        List<Issue> issues = List.of(early, late);
+        DailyRollup rollup = DailyRollup.of(Bucketing.identity(), false, issues, issues, issues);
+
+        DashboardSnapshot january = rollup.range(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+        assertThat(january.getTimeToClose()).containsExactly(new BinCount("2", 1));
+        assertThat(january.getPriorities()).containsExactly(new BinCount("High", 1), new BinCount("Low", 1));
+        assertThat(january.getDailyStats()).containsExactly(
+                new DailyStats(LocalDate.of(2024, 1, 10), 1, 0, 1, 0),
+                new DailyStats(LocalDate.of(2024, 1, 11), 1, 0, 2, 0),
+                new DailyStats(LocalDate.of(2024, 1, 12), 0, 1, 2, 1));
+        assertThat(rollup.range(LocalDate.of(2024, 2, 1), null).getDailyStats())
+                .containsExactly(new DailyStats(LocalDate.of(2024, 3, 1), 0, 1, 2, 2));
+        assertThat(rollup.size()).isEqualTo(4);
+    }
+
+    @Test
+    void rangeShouldContinueCumulativeCountsFromEarlierDays() {
+        List<Issue> issues = new JiraPayloadGenerator().issues(1_000, 5);
+        DailyRollup rollup = DailyRollup.of(Bucketing.identity(), false, closed(issues), issues, issues);
+        List<DailyStats> all = rollup.range(null, null).getDailyStats();
+        LocalDate from = all.get(all.size() / 2).date();
+
+        List<DailyStats> ranged = rollup.range(from, null).getDailyStats();
+
+        assertThat(ranged).isNotEmpty();
+        assertThat(all).endsWith(ranged.toArray(DailyStats[]::new));
+    }
+
+    @Test
+    void rangeShouldRejectReversedBounds() {
+        DailyRollup rollup = new DailyRollup(Bucketing.identity(), false);
+
+        assertThatThrownBy(() -> rollup.range(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void replacingIssuesShouldMatchRebuild() {
+        List<Issue> before = new JiraPayloadGenerator().issues(1_000, 5);
+        List<Issue> updates = new JiraPayloadGenerator("KAFKA", 7, 500).issues(100, 5);
+        List<Issue> after = new ArrayList<>(updates);
+        after.addAll(before.subList(updates.size(), before.size()));
+        Bucketing bucketing = Bucketing.parse("log2");
+
+        DashboardSnapshot snapshot = build(bucketing, before);
+        DailyRollup rollup = DailyRollup.of(bucketing, false, closed(before), before, before);
+        for (int i = 0; i < updates.size(); i++) {
+            replace(snapshot, before.get(i), updates.get(i));
+            replace(rollup, before.get(i), updates.get(i));
+        }
+
+        assertSameWidgets(snapshot, build(bucketing, after));
+        assertSameWidgets(rollup.range(null, null), build(bucketing, after));
+        assertSameWidgets(rollup.range(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 12, 31)),
+                DailyRollup.of(bucketing, false, closed(after), after, after)
+                        .range(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 12, 31)));
+    }
+
+    @Test
+    void removingShouldNotLeaveOrCreateDays() {
+        Issue issue = issue("PROJ-1", LocalDateTime.of(2024, 1, 10, 9, 0), LocalDateTime.of(2024, 1, 12, 9, 0), "High");
+        DailyRollup rollup = new DailyRollup(Bucketing.identity(), false);
+
+        for (Source source : Source.values()) {
+            rollup.remove(source, issue);
+        }
+        assertThat(rollup.size()).isZero();
+
+        for (Source source : Source.values()) {
+            rollup.add(source, issue);
+        }
+        assertThat(rollup.size()).isEqualTo(2);
+        for (Source source : Source.values()) {
+            rollup.remove(source, issue);
+        }
+        assertThat(rollup.size()).isZero();
+    }
+
+    @Test
+    void copiesShouldNotSeeEachOthersChanges() {
+        Issue early = issue("PROJ-1", LocalDateTime.of(2024, 1, 10, 9, 0), LocalDateTime.of(2024, 1, 12, 9, 0), "High");
+        Issue late = issue("PROJ-2", LocalDateTime.of(2024, 1, 11, 9, 0), LocalDateTime.of(2024, 1, 12, 17, 0), "Low");
+        DailyRollup original = DailyRollup.of(Bucketing.identity(), false, List.of(early), List.of(early), List.of(early));
+        DashboardData before = original.range(null, null).toData();
+
+        DailyRollup copy = original.copy();
+        for (Source source : Source.values()) {
+            copy.add(source, late);
+        }
+        DashboardData copied = copy.range(null, null).toData();
+
+        assertThat(original.range(null, null).toData()).isEqualTo(before);
+        for (Source source : Source.values()) {
+            original.remove(source, early);
+        }
+        assertThat(original.size()).isZero();
+        assertThat(copy.range(null, null).toData()).isEqualTo(copied);
+        assertThat(copy.range(null, null).getPriorities()).containsExactly(new BinCount("High", 1), new BinCount("Low", 1));
+    }
+
+    @Test
+    void sketchAggregatesShouldRefuseRetraction() {
+        Issue issue = issue("PROJ-1", LocalDateTime.of(2024, 1, 10, 9, 0), LocalDateTime.of(2024, 1, 12, 9, 0), "High");
+        DashboardSnapshot snapshot = new DashboardSnapshot(Bucketing.identity(), true);
+        snapshot.add(Source.CLOSED, issue);
+
+        assertThat(snapshot.isRetractable()).isFalse();
+        assertThatThrownBy(() -> snapshot.remove(Source.CLOSED, issue)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static <T extends IssueAggregate<T>> void replace(T aggregate, Issue old, Issue updated) {
+        for (Source source : Source.values()) {
+            if (source != Source.CLOSED || old.resolved() != null) {
+                aggregate.remove(source, old);
+            }
+            if (source != Source.CLOSED || updated.resolved() != null) {
+                aggregate.add(source, updated);
+            }
+        }
+    }
+
+    private static DashboardSnapshot build(Bucketing bucketing, List<Issue> issues) {
+        DashboardSnapshot snapshot = new DashboardSnapshot(bucketing);
+        snapshot.addClosed(closed(issues));
+        snapshot.addDated(issues);
+        snapshot.addAny(issues);
+        return snapshot;
+    }
+
+    private static List<Issue> closed(List<Issue> issues) {
+        return issues.stream().filter(issue -> issue.resolved() != null).toList();
+    }
+
+    private static void assertSameWidgets(DashboardSnapshot actual, DashboardSnapshot expected) {
+        assertThat(actual.getTimeToClose()).isEqualTo(expected.getTimeToClose());
+        assertThat(actual.getStatusTime()).isEqualTo(expected.getStatusTime());
+        assertThat(actual.getDailyStats()).isEqualTo(expected.getDailyStats());
+        assertThat(actual.getTopUsers()).isEqualTo(expected.getTopUsers());
+        assertThat(actual.getInProgressTime()).isEqualTo(expected.getInProgressTime());
+        assertThat(actual.getPriorities()).isEqualTo(expected.getPriorities());
+        assertThat(actual.getPercentiles().keySet()).isEqualTo(expected.getPercentiles().keySet());
+        actual.getPercentiles().forEach((name, percentiles) ->
+                assertThat(percentiles.count()).isEqualTo(expected.getPercentiles().get(name).count()));
+    }
+
+    private static Issue issue(String key, LocalDateTime created, LocalDateTime resolved, String priority) {
+        return new Issue(key, created, resolved, "Closed", "Alice", "Bob", priority,
+                List.of(new StatusDuration("In Progress", 1)));
+    }
+}
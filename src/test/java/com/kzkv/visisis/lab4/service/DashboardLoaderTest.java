@@ -0,0 +1,109 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.BinCount;
+import com.kzkv.visisis.lab4.dto.DashboardData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardLoaderTest {
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Test
+    void stream_ShouldDeliverEachWidgetAndReportFailures() {
+        DashboardLoader loader = loader(new SyncTaskExecutor(), Duration.ofSeconds(5), Duration.ofSeconds(5));
+        List<BinCount> priorities = List.of(new BinCount("High", 1));
+        when(dashboardService.getIssuesByPriority("PROJ", 100)).thenReturn(priorities);
+        when(dashboardService.getTopUsers("PROJ", 100)).thenThrow(new IllegalStateException("Jira is down"));
+
+        Map<DashboardWidget, Object> ready = new ConcurrentHashMap<>();
+        Set<DashboardWidget> unavailable = ConcurrentHashMap.newKeySet();
+        loader.stream("PROJ", 100, ready::put, unavailable::add).join();
+
+        assertThat(ready).containsEntry(DashboardWidget.PRIORITY, priorities).hasSize(DashboardWidget.values().length - 1);
+        assertThat(unavailable).containsExactly(DashboardWidget.TOP_USERS);
+    }
+
+    @Test
+    void load_ShouldRenderFailedWidgetWithItsFallback() {
+        DashboardLoader loader = loader(new SyncTaskExecutor(), Duration.ofSeconds(5), Duration.ofSeconds(5));
+        List<BinCount> priorities = List.of(new BinCount("High", 1));
+        when(dashboardService.getIssuesByPriority("PROJ", 100)).thenReturn(priorities);
+        when(dashboardService.getStatusTimeDistribution("PROJ", 100)).thenThrow(new IllegalStateException("Jira is down"));
+
+        DashboardData data = loader.load("PROJ", 100);
+
+        assertThat(data.widgets()).hasSize(DashboardWidget.values().length)
+                .containsEntry(DashboardWidget.PRIORITY.getAttribute(), priorities)
+                .containsEntry(DashboardWidget.STATUS_TIME.getAttribute(), DashboardWidget.STATUS_TIME.getFallback());
+        assertThat(data.unavailable()).containsExactly(DashboardWidget.STATUS_TIME.getAttribute());
+    }
+
+    @Test
+    void load_ShouldInterruptWidgetThatExceedsItsTimeout() throws InterruptedException {
+        DashboardLoader loader = loader(new VirtualThreadTaskExecutor("test-"), Duration.ofSeconds(10), Duration.ofMillis(100));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(dashboardService.getTopUsers("PROJ", 100)).thenAnswer(invocation -> blockUntilInterrupted(interrupted));
+
+        long started = System.nanoTime();
+        DashboardData data = loader.load("PROJ", 100);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+        assertThat(data.unavailable()).containsExactly(DashboardWidget.TOP_USERS.getAttribute());
+        assertThat(data.widgets()).containsEntry(DashboardWidget.TOP_USERS.getAttribute(), DashboardWidget.TOP_USERS.getFallback());
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void stream_ShouldGiveUpOnRemainingWidgetsAtThePageDeadline() throws InterruptedException {
+        DashboardLoader loader = loader(new VirtualThreadTaskExecutor("test-"), Duration.ofMillis(200), Duration.ofSeconds(10));
+        CountDownLatch interrupted = new CountDownLatch(2);
+        when(dashboardService.getTopUsers("PROJ", 100)).thenAnswer(invocation -> blockUntilInterrupted(interrupted));
+        when(dashboardService.getDailyTaskStats("PROJ", 100)).thenAnswer(invocation -> blockUntilInterrupted(interrupted));
+
+        Map<DashboardWidget, Object> ready = new ConcurrentHashMap<>();
+        Set<DashboardWidget> unavailable = ConcurrentHashMap.newKeySet();
+        long started = System.nanoTime();
+        loader.stream("PROJ", 100, ready::put, unavailable::add).join();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+        assertThat(unavailable).containsExactlyInAnyOrder(DashboardWidget.TOP_USERS, DashboardWidget.DAILY_STATS);
+        assertThat(ready).hasSize(DashboardWidget.values().length - 2);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private DashboardLoader loader(TaskExecutor executor, Duration pageTimeout, Duration widgetTimeout) {
+        DashboardLoader loader = new DashboardLoader(dashboardService, executor);
+        ReflectionTestUtils.setField(loader, "pageTimeout", pageTimeout);
+        ReflectionTestUtils.setField(loader, "widgetTimeout", widgetTimeout);
+        return loader;
+    }
+
+    private static Object blockUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(Duration.ofSeconds(30));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return List.of();
+    }
+}
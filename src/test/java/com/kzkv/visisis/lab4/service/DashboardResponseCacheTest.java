@@ -0,0 +1,124 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kzkv.visisis.lab4.aggregate.Bucketing;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardResponseCacheTest {
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private IssueService issueService;
+
+    private DashboardResponseCache responseCache;
+
+    private final List<Issue> issues = List.of(new Issue(
+            "PROJ-1", LocalDateTime.of(2024, 6, 1, 10, 0), LocalDateTime.of(2024, 6, 5, 14, 0),
+            "Closed", "Alice", "Bob", "High", List.of(new StatusDuration("Open", 4))));
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        responseCache = new DashboardResponseCache(
+                new ProjectSnapshots(dashboardService, issueService, 16), objectMapper, 16);
+        when(dashboardService.getSnapshot(anyList(), anyList(), anyList())).thenAnswer(invocation -> snapshot(issues));
+    }
+
+    @Test
+    void shouldReuseSerializedBodyUntilIssuesChange() {
+        when(issueService.getIssues(anyString(), anyInt())).thenReturn(issues);
+
+        DashboardResponseCache.Body first = responseCache.dashboard("PROJ", 100);
+        DashboardResponseCache.Body second = responseCache.dashboard("PROJ", 100);
+        responseCache.widget("PROJ", 100, DashboardWidget.PRIORITY);
+
+        assertThat(second).isSameAs(first);
+        verify(dashboardService, times(1)).getSnapshot(anyList(), anyList(), anyList());
+
+        when(issueService.getIssues(anyString(), anyInt())).thenReturn(new ArrayList<>(issues));
+        DashboardResponseCache.Body refreshed = responseCache.dashboard("PROJ", 100);
+
+        assertThat(refreshed).isNotSameAs(first);
+        assertThat(refreshed.etag()).isEqualTo(first.etag());
+        verify(dashboardService, times(2)).getSnapshot(anyList(), anyList(), anyList());
+    }
+
+    @Test
+    void shouldReuseRangeBodyPerRangeUntilIssuesChange() {
+        when(issueService.getIssues(anyString(), anyInt())).thenReturn(issues);
+        when(dashboardService.getRollup(anyList(), anyList(), anyList()))
+                .thenAnswer(invocation -> DailyRollup.of(Bucketing.identity(), false, issues, issues, issues));
+        LocalDate from = LocalDate.of(2024, 6, 1);
+        LocalDate to = LocalDate.of(2024, 6, 30);
+
+        DashboardResponseCache.Body first = responseCache.dashboard("PROJ", 100, from, to);
+        DashboardResponseCache.Body second = responseCache.dashboard("PROJ", 100, from, to);
+        DashboardResponseCache.Body otherRange = responseCache.dashboard("PROJ", 100, from, from);
+        DashboardResponseCache.Body whole = responseCache.dashboard("PROJ", 100);
+
+        assertThat(second).isSameAs(first);
+        assertThat(otherRange).isNotSameAs(first);
+        assertThat(new String(first.json())).contains("\"from\":\"2024-06-01\"", "\"to\":\"2024-06-30\"");
+        assertThat(new String(whole.json())).doesNotContain("\"from\"");
+        assertThat(responseCache.widget("PROJ", 100, DashboardWidget.PRIORITY, from, to))
+                .isSameAs(responseCache.widget("PROJ", 100, DashboardWidget.PRIORITY, from, to));
+        verify(dashboardService, times(1)).getRollup(anyList(), anyList(), anyList());
+
+        when(issueService.getIssues(anyString(), anyInt())).thenReturn(new ArrayList<>(issues));
+
+        assertThat(responseCache.dashboard("PROJ", 100, from, to)).isNotSameAs(first);
+        verify(dashboardService, times(2)).getRollup(anyList(), anyList(), anyList());
+    }
+
+    @Test
+    void shouldServeWidgetJsonAndMatchingGzip() throws IOException {
+        when(issueService.getIssues(anyString(), anyInt())).thenReturn(issues);
+
+        DashboardResponseCache.Body body = responseCache.widget("PROJ", 100, DashboardWidget.PRIORITY);
+
+        assertThat(new String(body.json())).isEqualTo("[{\"bin\":\"High\",\"count\":1}]");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(body.json());
+        }
+        assertThat(body.etag()).startsWith("W/\"");
+        assertThat(body.matches(body.etag())).isTrue();
+        assertThat(body.matches("\"other\", " + body.etag().substring(2))).isTrue();
+        assertThat(body.matches("\"other\"")).isFalse();
+        assertThat(body.matches(null)).isFalse();
+    }
+
+    private static DashboardSnapshot snapshot(List<Issue> issues) {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.addClosed(issues);
+        snapshot.addDated(issues);
+        snapshot.addAny(issues);
+        return snapshot;
+    }
+}
@@ -1,6 +1,9 @@
 package com.kzkv.visisis.lab4.service;
 
+import com.kzkv.visisis.lab4.columnar.IssueTable;
 import com.kzkv.visisis.lab4.dto.*;
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +12,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -158,6 +162,92 @@ class DashboardServiceImplTest {
                 );
     }
 
+    @Test
+    void getSnapshot_ShouldMatchPerWidgetAggregations() {
+        when(issueService.getIssues("project = \"PROJ\" AND status = Closed", 100))
+                .thenReturn(List.of(closedIssue1, closedIssue2));
+        when(issueService.getIssues("project = \"PROJ\" AND (created IS NOT NULL OR resolutiondate IS NOT NULL)", 100))
+                .thenReturn(List.of(closedIssue1, closedIssue2, openIssue));
+        when(issueService.getIssues("project = \"PROJ\"", 100))
+                .thenReturn(List.of(closedIssue1, closedIssue2, openIssue));
+
+        DashboardSnapshot snapshot = dashboardService.getSnapshot("PROJ", 100);
+
+        assertThat(snapshot.getTimeToClose())
+                .containsExactlyInAnyOrderElementsOf(dashboardService.getIssuesByOpenedTime("PROJ", 100));
+        assertThat(snapshot.getStatusTime().get("In Progress"))
+                .containsExactly(new BinCount("2", 1), new BinCount("3", 1));
+        assertThat(snapshot.getDailyStats()).isEqualTo(dashboardService.getDailyTaskStats("PROJ", 100));
+        assertThat(snapshot.getTopUsers()).isEqualTo(dashboardService.getTopUsers("PROJ", 100));
+        assertThat(snapshot.getInProgressTime())
+                .containsExactlyInAnyOrderElementsOf(dashboardService.getAssignedIssuesTimeDistribution("PROJ", 100));
+        assertThat(snapshot.getPriorities())
+                .containsExactly(new BinCount("High", 1), new BinCount("Low", 1), new BinCount("Medium", 1));
+    }
+
+    @Test
+    void sketchAggregation_ShouldMatchExactResultsOnSmallInputs() {
+        dashboardService.setAggregation("sketch");
+        when(issueService.getIssues("project = \"PROJ\" AND status = Closed", 100))
+                .thenReturn(List.of(closedIssue1, closedIssue2));
+        when(issueService.getIssues("project = \"PROJ\" AND (created IS NOT NULL OR resolutiondate IS NOT NULL)", 100))
+                .thenReturn(List.of(closedIssue1, closedIssue2, openIssue));
+        when(issueService.getIssues("project = \"PROJ\"", 100))
+                .thenReturn(List.of(closedIssue1, closedIssue2, openIssue));
+
+        DashboardSnapshot snapshot = dashboardService.getSnapshot("PROJ", 100);
+
+        assertThat(snapshot.getTopUsers()).isEqualTo(dashboardService.getTopUsers("PROJ", 100));
+        assertThat(snapshot.getTopUsers().get(0)).isEqualTo(new UserCount("Bob", 2));
+        assertThat(snapshot.getPercentiles()).isEqualTo(dashboardService.getPercentiles("PROJ", 100));
+        assertThat(snapshot.getPercentiles()).containsKeys("timeToClose", "inProgress");
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.setAggregation("approximate"));
+    }
+
+    @Test
+    void widgetAggregations_ShouldBeTimedPerWidget() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dashboardService.setMeterRegistry(registry);
+        when(issueService.getIssues("project = \"PROJ\" AND status = Closed", 100))
+                .thenReturn(List.of(closedIssue1, closedIssue2));
+
+        dashboardService.getIssuesByOpenedTime("PROJ", 100);
+        dashboardService.getIssuesByOpenedTime("PROJ", 100);
+        dashboardService.getTopUsers("PROJ", 100);
+
+        assertThat(registry.get("dashboard.widget").tag("widget", "time_to_close").timer().count()).isEqualTo(2);
+        assertThat(registry.get("dashboard.widget").tag("widget", "top_users").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void projectKeyOf_ShouldReadKeyBackFromWidgetQueries() {
+        assertThat(Jql.projectKeyOf(Jql.closed("PROJ"))).isEqualTo("PROJ");
+        assertThat(Jql.projectKeyOf(Jql.createdOrResolved("PROJ"))).isEqualTo("PROJ");
+        assertThat(Jql.projectKeyOf(Jql.project("PROJ"))).isEqualTo("PROJ");
+    }
+
+    @Test
+    void widgets_ShouldGiveSameResultsForListAndTableBackedIssues() {
+        LocalDateTime created = LocalDateTime.of(2024, 6, 4, 8, 0);
+        LocalDateTime resolved = LocalDateTime.of(2024, 6, 7, 17, 30);
+        Issue withTimeline = new Issue("PROJ-4", created, resolved, "Closed", "Dana", "Bob", "High",
+                StatusTimeline.of(created, resolved, "Closed", List.of(
+                        new StatusChange(created.plusHours(3), "Open", "In Progress"),
+                        new StatusChange(created.plusDays(2), "In Progress", "Closed"))));
+        List<Issue> closed = List.of(closedIssue1, closedIssue2, withTimeline);
+        List<Issue> all = List.of(closedIssue1, closedIssue2, withTimeline, openIssue);
+
+        for (String aggregation : List.of("exact", "sketch")) {
+            dashboardService.setAggregation(aggregation);
+            stubIssues(closed, all);
+            Map<String, Object> fromList = widgets();
+            stubIssues(IssueTable.of(closed), IssueTable.of(all));
+            Map<String, Object> fromTable = widgets();
+
+            assertThat(fromTable).as(aggregation).isEqualTo(fromList);
+        }
+    }
+
     @Test
     void sanitizeProjectKey_ShouldAllowValidKeys() {
         dashboardService.getIssuesByPriority("My-PROJ_123", 10);
@@ -172,4 +262,19 @@ class DashboardServiceImplTest {
         );
         assertThat(ex.getMessage()).contains("Invalid project key");
     }
+
+    private void stubIssues(List<Issue> closed, List<Issue> all) {
+        when(issueService.getIssues("project = \"PROJ\" AND status = Closed", 100)).thenReturn(closed);
+        when(issueService.getIssues("project = \"PROJ\" AND (created IS NOT NULL OR resolutiondate IS NOT NULL)", 100))
+                .thenReturn(all);
+        when(issueService.getIssues("project = \"PROJ\"", 100)).thenReturn(all);
+    }
+
+    private Map<String, Object> widgets() {
+        Map<String, Object> widgets = new LinkedHashMap<>();
+        for (DashboardWidget widget : DashboardWidget.values()) {
+            widgets.put(widget.getAttribute(), widget.load(dashboardService, "PROJ", 100));
+        }
+        return widgets;
+    }
 }
\ No newline at end of file
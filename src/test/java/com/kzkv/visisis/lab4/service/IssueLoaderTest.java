@@ -0,0 +1,250 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import com.kzkv.visisis.lab4.dto.IssuesChangedEvent;
+import com.kzkv.visisis.lab4.store.IssueStore;
+import com.kzkv.visisis.lab4.store.SecondLevelCache;
+import com.kzkv.visisis.lab4.store.StoredIssues;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IssueLoaderTest {
+
+    private static final IssueQuery QUERY = new IssueQuery("project = \"PROJ\" AND status = Closed", 100);
+
+    @Mock
+    private JiraClient jiraClient;
+
+    @Mock
+    private IssueStore issueStore;
+
+    @Mock
+    private SecondLevelCache secondLevelCache;
+
+    @Mock
+    private TaskExecutor taskExecutor;
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private IssueLoader issueLoader;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(issueLoader, "deltaEnabled", true);
+        ReflectionTestUtils.setField(issueLoader, "deltaOverlap", Duration.ofHours(1));
+        ReflectionTestUtils.setField(issueLoader, "fullResyncInterval", Duration.ofHours(24));
+        ReflectionTestUtils.setField(issueLoader, "jiraTimeZone", ZoneOffset.UTC);
+        ReflectionTestUtils.setField(issueLoader, "sharedFreshFor", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(issueLoader, "maxTotalIssues", 20_000);
+    }
+
+    @Test
+    void reload_ShouldMergeDeltaByKeyAfterFullSync() {
+        Issue first = issue("PROJ-1", "Alice");
+        Issue second = issue("PROJ-2", "Bob");
+        Issue secondUpdated = issue("PROJ-2", "Charlie");
+        Issue third = issue("PROJ-3", "Dana");
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenReturn(List.of(first, second));
+        when(jiraClient.fetch(startsWith("(" + QUERY.jql() + ") AND updated >= \""), eq(100)))
+                .thenReturn(List.of(secondUpdated, third));
+        stubLeftQuery(List.of());
+
+        List<Issue> full = issueLoader.reload(QUERY, List.of());
+        List<Issue> merged = issueLoader.reload(QUERY, full);
+
+        assertThat(full).containsExactly(first, second);
+        assertThat(merged).containsExactly(first, secondUpdated, third);
+    }
+
+    @Test
+    void reload_ShouldPublishOnlyIssuesThatActuallyChanged() {
+        Issue first = issue("PROJ-1", "Alice");
+        Issue second = issue("PROJ-2", "Bob");
+        Issue secondUpdated = issue("PROJ-2", "Charlie");
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenReturn(List.of(first, second));
+        when(jiraClient.fetch(startsWith("(" + QUERY.jql() + ") AND updated >= \""), eq(100)))
+                .thenReturn(List.of(issue("PROJ-1", "Alice"), secondUpdated));
+        stubLeftQuery(List.of());
+
+        List<Issue> full = issueLoader.reload(QUERY, List.of());
+        List<Issue> merged = issueLoader.reload(QUERY, full);
+
+        verify(eventPublisher).publishEvent(new IssuesChangedEvent(QUERY, full, merged, List.of(second), List.of(secondUpdated)));
+    }
+
+    @Test
+    void reload_ShouldKeepListWhenDeltaChangesNothing() {
+        Issue first = issue("PROJ-1", "Alice");
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenReturn(List.of(first));
+        when(jiraClient.fetch(startsWith("(" + QUERY.jql() + ") AND updated >= \""), eq(100)))
+                .thenReturn(List.of(issue("PROJ-1", "Alice")));
+        stubLeftQuery(List.of());
+
+        List<Issue> full = issueLoader.reload(QUERY, List.of());
+
+        assertThat(issueLoader.reload(QUERY, full)).isSameAs(full);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void reload_ShouldFetchFullSetWithoutHighWaterMark() {
+        Issue first = issue("PROJ-1", "Alice");
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenReturn(List.of(first));
+
+        assertThat(issueLoader.reload(QUERY, List.of(issue("PROJ-9", "Old")))).containsExactly(first);
+        verify(jiraClient, never()).fetch(startsWith("("), anyInt());
+    }
+
+    @Test
+    void reload_ShouldAdoptFreshEntryFromAnotherReplica() {
+        Issue first = issue("PROJ-1", "Alice");
+        when(secondLevelCache.get(QUERY))
+                .thenReturn(Optional.of(new StoredIssues(List.of(first), Instant.now(), Instant.now(), 1200)));
+
+        assertThat(issueLoader.reload(QUERY, List.of())).containsExactly(first);
+        verify(jiraClient, never()).fetch(anyString(), anyInt());
+        verify(secondLevelCache, never()).put(any(), any());
+    }
+
+    @Test
+    void reload_ShouldIgnoreStaleSharedEntryAndPublishFetchedIssues() {
+        Issue stale = issue("PROJ-1", "Alice");
+        Issue fresh = issue("PROJ-1", "Bob");
+        Instant old = Instant.now().minus(Duration.ofHours(1));
+        when(secondLevelCache.get(QUERY)).thenReturn(Optional.of(new StoredIssues(List.of(stale), old, old, 1200)));
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenReturn(List.of(fresh));
+
+        assertThat(issueLoader.reload(QUERY, List.of())).containsExactly(fresh);
+        verify(secondLevelCache).put(eq(QUERY), argThat(stored -> stored.issues().equals(List.of(fresh))));
+    }
+
+    @Test
+    void fetch_ShouldPropagateFailuresInsteadOfCachingEmptyList() {
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenThrow(new ResourceAccessException("Jira is down"));
+
+        assertThatThrownBy(() -> issueLoader.fetch(QUERY)).isInstanceOf(ResourceAccessException.class);
+        assertThat(issueLoader.staleSince(QUERY)).isPresent();
+    }
+
+    @Test
+    void fetch_ShouldServeLastGoodSharedEntryWhileStale() {
+        Issue first = issue("PROJ-1", "Alice");
+        Instant old = Instant.now().minus(Duration.ofHours(3));
+        when(secondLevelCache.get(QUERY)).thenReturn(Optional.of(new StoredIssues(List.of(first), old, old, 1200)));
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenThrow(new ResourceAccessException("Jira is down"));
+        when(jiraClient.fetch(startsWith("(" + QUERY.jql() + ") AND updated >= \""), eq(100)))
+                .thenReturn(List.of());
+        stubLeftQuery(List.of());
+
+        assertThat(issueLoader.fetch(QUERY)).containsExactly(first);
+        assertThat(issueLoader.staleSince(QUERY)).isPresent();
+
+        issueLoader.reload(QUERY, List.of(first));
+        assertThat(issueLoader.staleSince(QUERY)).isEmpty();
+    }
+
+    @Test
+    void fetch_ShouldServeLocallyStoredIssuesBeforeSharedEntry() {
+        Issue local = issue("PROJ-1", "Alice");
+        Issue shared = issue("PROJ-1", "Bob");
+        Instant old = Instant.now().minus(Duration.ofHours(3));
+        when(issueStore.get(QUERY)).thenReturn(Optional.of(new StoredIssues(List.of(local), old, old, 1200)));
+        when(secondLevelCache.get(QUERY)).thenReturn(Optional.of(new StoredIssues(List.of(shared), old, old, 1200)));
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenThrow(new ResourceAccessException("Jira is down"));
+
+        assertThat(issueLoader.fetch(QUERY)).containsExactly(local);
+        assertThat(issueLoader.staleSince(QUERY)).isPresent();
+        verify(issueStore, never()).put(any(), any());
+    }
+
+    @Test
+    void reload_ShouldDropIssuesThatNoLongerMatchTheQuery() {
+        Issue first = issue("PROJ-1", "Alice");
+        Issue second = issue("PROJ-2", "Bob");
+        when(jiraClient.fetch(QUERY.jql(), 100)).thenReturn(List.of(first, second));
+        when(jiraClient.fetch(startsWith("(" + QUERY.jql() + ") AND updated >= \""), eq(100))).thenReturn(List.of());
+        stubLeftQuery(List.of(issue("PROJ-2", "Bob")));
+
+        List<Issue> full = issueLoader.reload(QUERY, List.of());
+        List<Issue> merged = issueLoader.reload(QUERY, full);
+
+        assertThat(merged).containsExactly(first);
+        verify(eventPublisher).publishEvent(new IssuesChangedEvent(QUERY, full, merged, List.of(second), List.of()));
+    }
+
+    @Test
+    void reload_ShouldFallBackToFullSyncWhenDeltaReachesMaxResults() {
+        IssueQuery query = new IssueQuery(QUERY.jql(), 2);
+        Issue first = issue("PROJ-1", "Alice");
+        Issue second = issue("PROJ-2", "Bob");
+        Issue third = issue("PROJ-3", "Charlie");
+        when(jiraClient.fetch(QUERY.jql(), 2)).thenReturn(List.of(first)).thenReturn(List.of(second, third));
+        when(jiraClient.fetch(startsWith("(" + QUERY.jql() + ") AND updated >= \""), eq(2)))
+                .thenReturn(List.of(second, third));
+
+        List<Issue> full = issueLoader.reload(query, List.of());
+        List<Issue> resynced = issueLoader.reload(query, full);
+
+        assertThat(resynced).containsExactly(second, third);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void reload_ShouldNotUseDeltaWhileCachedSetIsTruncated() {
+        IssueQuery query = new IssueQuery(QUERY.jql(), 2);
+        Issue first = issue("PROJ-1", "Alice");
+        Issue second = issue("PROJ-2", "Bob");
+        when(jiraClient.fetch(QUERY.jql(), 2)).thenReturn(List.of(first, second));
+
+        List<Issue> full = issueLoader.reload(query, List.of());
+        issueLoader.reload(query, full);
+
+        verify(jiraClient, times(2)).fetch(QUERY.jql(), 2);
+        verify(jiraClient, never()).fetch(startsWith("("), anyInt());
+    }
+
+    private void stubLeftQuery(List<Issue> left) {
+        when(jiraClient.fetch(startsWith("project = \"PROJ\" AND updated >= \""), eq(100))).thenReturn(left);
+    }
+
+    private static Issue issue(String key, String assignee) {
+        return new Issue(key, LocalDateTime.of(2024, 6, 1, 10, 0), null, "Open", "Alice", assignee, "Major", List.of());
+    }
+}
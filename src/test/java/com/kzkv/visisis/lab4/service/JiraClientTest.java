@@ -0,0 +1,165 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator;
+import com.kzkv.visisis.lab4.resilience.AdaptiveLimiter;
+import com.kzkv.visisis.lab4.resilience.Backoff;
+import com.kzkv.visisis.lab4.resilience.CircuitBreaker;
+import com.kzkv.visisis.lab4.resilience.JiraGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.between;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class JiraClientTest {
+
+    private static final String URL = "https://jira.example.org/rest/api/2/search?jql=%s&startAt=%s&maxResults=%s";
+    private static final JiraPayloadGenerator GENERATOR = new JiraPayloadGenerator("PROJ", 7, 20);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+    private final JiraClient client = new JiraClient(
+            restTemplate,
+            new VirtualThreadTaskExecutor("jira-test-"),
+            new JiraSearchDecoder(new ObjectMapper()),
+            meterRegistry,
+            new JiraGuard(
+                    new CircuitBreaker(20, 5, 0.5, Duration.ofMinutes(1)),
+                    new AdaptiveLimiter(8, 1, 8, Duration.ofSeconds(5)),
+                    new Backoff(Duration.ofMillis(1), Duration.ofMillis(5)),
+                    1));
+
+    JiraClientTest() {
+        ReflectionTestUtils.setField(client, "urlTemplate", URL);
+        ReflectionTestUtils.setField(client, "pageSize", 100);
+        ReflectionTestUtils.setField(client, "fetchConcurrency", 4);
+        ReflectionTestUtils.setField(client, "maxTotalIssues", 1_000);
+        ReflectionTestUtils.setField(client, "metricProjects", List.of("PROJ"));
+    }
+
+    @Test
+    void fetch_ShouldStopAfterFirstPageWhenItHoldsTheTotal() {
+        expectPage(0, 100, page(0, 30, 30, Duration.ZERO));
+
+        List<Issue> issues = client.fetch(Jql.project("PROJ"), 500);
+
+        assertThat(keys(issues)).isEqualTo(expectedKeys(30));
+        server.verify();
+    }
+
+    @Test
+    void fetch_ShouldFetchRemainingPagesFromFirstTotalAndMergeInStartAtOrder() {
+        expectPage(0, 100, page(0, 100, 250, Duration.ZERO));
+        expectPage(100, 100, page(100, 100, 250, Duration.ofMillis(200)));
+        expectPage(200, 50, page(200, 50, 250, Duration.ZERO));
+
+        List<Issue> issues = client.fetch(Jql.project("PROJ"), 500);
+
+        assertThat(keys(issues)).isEqualTo(expectedKeys(250));
+        server.verify();
+    }
+
+    @Test
+    void fetch_ShouldShrinkPageSizeToWhatJiraReturned() {
+        expectPage(0, 100, page(0, 50, 120, Duration.ZERO));
+        expectPage(50, 50, page(50, 50, 120, Duration.ZERO));
+        expectPage(100, 20, page(100, 20, 120, Duration.ZERO));
+
+        List<Issue> issues = client.fetch(Jql.project("PROJ"), 500);
+
+        assertThat(keys(issues)).isEqualTo(expectedKeys(120));
+        server.verify();
+    }
+
+    @Test
+    void fetch_ShouldCapAtMaxTotalIssues() {
+        ReflectionTestUtils.setField(client, "maxTotalIssues", 150);
+        expectPage(0, 100, page(0, 100, 5_000, Duration.ZERO));
+        expectPage(100, 50, page(100, 50, 5_000, Duration.ZERO));
+
+        List<Issue> issues = client.fetch(Jql.project("PROJ"), 10_000);
+
+        assertThat(keys(issues)).isEqualTo(expectedKeys(150));
+        server.verify();
+    }
+
+    @Test
+    void fetch_ShouldReturnNothingForEmptyFirstPage() {
+        expectPage(0, 100, page(0, 0, 0, Duration.ZERO));
+
+        assertThat(client.fetch(Jql.project("PROJ"), 500)).isEmpty();
+        server.verify();
+    }
+
+    @Test
+    void fetch_ShouldTagMetersOnlyWithConfiguredProjects() {
+        expectPage(0, 100, page(0, 30, 30, Duration.ZERO));
+        expectPage(0, 100, page(0, 30, 30, Duration.ZERO));
+
+        client.fetch(Jql.project("PROJ"), 500);
+        client.fetch(Jql.project("RANDOM"), 500);
+
+        assertThat(meterRegistry.get("jira.fetch").tag("project", "PROJ").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jira.fetch").tag("project", "other").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("jira.fetch").tag("project", "RANDOM").timer()).isNull();
+    }
+
+    @Test
+    void fetch_ShouldRethrowPageFailureAndSkipPagesNotYetStarted() {
+        ReflectionTestUtils.setField(client, "fetchConcurrency", 1);
+        expectPage(0, 100, page(0, 100, 1_000, Duration.ZERO));
+        server.expect(once(), queryParam("startAt", "100")).andRespond(withServerError());
+        for (int startAt = 200; startAt < 1_000; startAt += 100) {
+            server.expect(between(0, 1), queryParam("startAt", String.valueOf(startAt)))
+                    .andRespond(page(startAt, 100, 1_000, Duration.ofMillis(50)));
+        }
+
+        assertThatThrownBy(() -> client.fetch(Jql.project("PROJ"), 1_000))
+                .isInstanceOf(HttpServerErrorException.class);
+    }
+
+    private void expectPage(int startAt, int maxResults, ResponseCreator response) {
+        server.expect(once(), queryParam("startAt", String.valueOf(startAt)))
+                .andExpect(queryParam("maxResults", String.valueOf(maxResults)))
+                .andRespond(response);
+    }
+
+    private static ResponseCreator page(int startAt, int count, int total, Duration delay) {
+        byte[] body = GENERATOR.searchResponse(startAt, count, total, 2);
+        return request -> {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return withSuccess(body, MediaType.APPLICATION_JSON).createResponse(request);
+        };
+    }
+
+    private static List<String> keys(List<Issue> issues) {
+        return issues.stream().map(Issue::key).toList();
+    }
+
+    private static List<String> expectedKeys(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(i -> "PROJ-" + i).toList();
+    }
+}
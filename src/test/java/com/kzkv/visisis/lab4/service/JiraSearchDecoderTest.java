@@ -0,0 +1,149 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.JiraSearchPage;
+import com.kzkv.visisis.lab4.fixtures.JiraPayloadGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JiraSearchDecoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JiraSearchDecoder decoder = new JiraSearchDecoder(objectMapper);
+
+    private static final String RESPONSE = """
+            {
+              "expand": "schema,names",
+              "startAt": 0,
+              "maxResults": 50,
+              "total": 1234,
+              "issues": [
+                {
+                  "id": "1",
+                  "key": "PROJ-1",
+                  "fields": {
+                    "created": "2024-06-01T10:00:00.000+0300",
+                    "resolutiondate": "2024-06-05T14:30:00.000+0300",
+                    "status": {"name": "Closed", "id": "6"},
+                    "reporter": {"displayName": "Alice", "avatarUrls": {"48x48": "x"}},
+                    "assignee": {"displayName": "Bob"},
+                    "priority": {"name": "High"}
+                  },
+                  "changelog": {
+                    "startAt": 0,
+                    "histories": [
+                      {
+                        "author": {"displayName": "Bob"},
+                        "items": [
+                          {"field": "assignee", "fromString": null, "toString": "Bob"},
+                          {"field": "status", "fromString": "In Progress", "toString": "Resolved"}
+                        ],
+                        "created": "2024-06-04T16:00:00.000+0300"
+                      },
+                      {
+                        "created": "2024-06-02T09:00:00.000+0300",
+                        "items": [{"field": "status", "fromString": "Open", "toString": "In Progress"}]
+                      },
+                      {
+                        "created": "2024-06-04T18:00:00.000+0300",
+                        "items": [{"field": "status", "fromString": "Resolved", "toString": "Closed"}]
+                      }
+                    ]
+                  }
+                },
+                {
+                  "key": "PROJ-2",
+                  "fields": {
+                    "created": "2024-06-03T10:00:00.000+0300",
+                    "resolutiondate": null,
+                    "status": {"name": "Open"},
+                    "reporter": {"displayName": "Charlie"},
+                    "assignee": null,
+                    "priority": {"name": "Low"}
+                  },
+                  "changelog": {"histories": []}
+                },
+                {
+                  "key": "PROJ-3",
+                  "fields": {
+                    "created": "2024-06-01T10:00:00",
+                    "resolutiondate": "2024-06-01T10:00:00",
+                    "status": {"name": "Closed"},
+                    "priority": {"name": "Low"}
+                  },
+                  "changelog": {"histories": []}
+                },
+                {
+                  "key": "PROJ-4",
+                  "fields": {
+                    "created": "2024-06-01T10:00:00.000+0300",
+                    "resolutiondate": "2024-06-03T10:00:00.000+0300",
+                    "status": {"name": "Closed"}
+                  }
+                }
+              ]
+            }
+            """;
+
+    @Test
+    void shouldDecodeSameIssuesAsMapTree() throws Exception {
+        JiraSearchPage page = decode(RESPONSE);
+
+        assertThat(page.startAt()).isZero();
+        assertThat(page.total()).isEqualTo(1234);
+        assertThat(page.issues()).isEqualTo(decodeViaMapTree(RESPONSE));
+        assertThat(page.issues().get(0).statusDurations()).hasSize(4);
+        assertThat(page.issues().get(2).statusDurations()).hasSize(1);
+        assertThat(page.issues().get(3).statusDurations()).isEmpty();
+    }
+
+    @Test
+    void shouldFallBackToIssueCountWithoutTotal() throws Exception {
+        JiraSearchPage page = decode("{\"issues\": [{\"key\": \"PROJ-1\", \"fields\": {}}]}");
+
+        assertThat(page.total()).isEqualTo(1);
+        assertThat(page.issues()).extracting(Issue::key).containsExactly("PROJ-1");
+    }
+
+    @Test
+    void shouldAllocateLessThanMapTreeForLargePayload() throws Exception {
+        String payload = new String(new JiraPayloadGenerator().searchResponse(0, 2_000, 2_000, 10), StandardCharsets.UTF_8);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        decode(payload);
+        decodeViaMapTree(payload);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        List<Issue> streamed = decode(payload).issues();
+        long streaming = threads.getCurrentThreadAllocatedBytes() - before;
+
+        before = threads.getCurrentThreadAllocatedBytes();
+        List<Issue> tree = decodeViaMapTree(payload);
+        long mapTree = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(streamed).isEqualTo(tree);
+        assertThat(streaming)
+                .as("streaming=%d bytes, map tree=%d bytes", streaming, mapTree)
+                .isLessThan(mapTree);
+    }
+
+    private JiraSearchPage decode(String json) throws Exception {
+        return decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Issue> decodeViaMapTree(String json) throws Exception {
+        Map<String, Object> body = objectMapper.readValue(json, Map.class);
+        return ((List<Map<String, Object>>) body.get("issues")).stream()
+                .map(Issue::new)
+                .toList();
+    }
+}
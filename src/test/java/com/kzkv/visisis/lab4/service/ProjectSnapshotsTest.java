@@ -0,0 +1,107 @@
+package com.kzkv.visisis.lab4.service;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import com.kzkv.visisis.lab4.dto.IssuesChangedEvent;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectSnapshotsTest {
+
+    private static final String CLOSED = Jql.closed("PROJ");
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private IssueService issueService;
+
+    private ProjectSnapshots projectSnapshots;
+
+    private final Issue first = issue("PROJ-1", "Alice", "High", 4);
+    private final Issue second = issue("PROJ-2", "Bob", "Low", 2);
+    private final Issue secondUpdated = issue("PROJ-2", "Charlie", "Low", 6);
+    private final List<Issue> before = List.of(first, second);
+    private final List<Issue> after = List.of(first, secondUpdated);
+
+    @BeforeEach
+    void setUp() {
+        projectSnapshots = new ProjectSnapshots(dashboardService, issueService, 16);
+        when(issueService.getIssues(Jql.createdOrResolved("PROJ"), 100)).thenReturn(before);
+        when(issueService.getIssues(Jql.project("PROJ"), 100)).thenReturn(before);
+        when(dashboardService.getSnapshot(anyList(), anyList(), anyList())).thenAnswer(invocation -> build(
+                invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+    }
+
+    @Test
+    void shouldApplyPublishedChangesInsteadOfRebuilding() {
+        when(issueService.getIssues(CLOSED, 100)).thenReturn(before);
+        DashboardSnapshot original = projectSnapshots.get("PROJ", 100);
+
+        projectSnapshots.onIssuesChanged(new IssuesChangedEvent(
+                new IssueQuery(CLOSED, 100), before, after, List.of(second), List.of(secondUpdated)));
+        when(issueService.getIssues(CLOSED, 100)).thenReturn(after);
+        DashboardSnapshot updated = projectSnapshots.get("PROJ", 100);
+
+        verify(dashboardService, times(1)).getSnapshot(anyList(), anyList(), anyList());
+        assertThat(updated).isNotSameAs(original);
+        assertThat(updated.toData()).isEqualTo(build(after, before, before).toData());
+        assertThat(original.toData()).isEqualTo(build(before, before, before).toData());
+    }
+
+    @Test
+    void shouldRebuildWhenListChangedWithoutRecordedDelta() {
+        when(issueService.getIssues(CLOSED, 100)).thenReturn(before);
+        projectSnapshots.get("PROJ", 100);
+
+        when(issueService.getIssues(CLOSED, 100)).thenReturn(new ArrayList<>(after));
+        DashboardSnapshot rebuilt = projectSnapshots.get("PROJ", 100);
+
+        verify(dashboardService, times(2)).getSnapshot(anyList(), anyList(), anyList());
+        assertThat(rebuilt.toData()).isEqualTo(build(after, before, before).toData());
+    }
+
+    @Test
+    void shouldBuildFromTheListsItRecordsEvenWhenARefreshLandsInBetween() {
+        when(issueService.getIssues(CLOSED, 100)).thenReturn(before, after);
+        DashboardSnapshot original = projectSnapshots.get("PROJ", 100);
+
+        projectSnapshots.onIssuesChanged(new IssuesChangedEvent(
+                new IssueQuery(CLOSED, 100), before, after, List.of(second), List.of(secondUpdated)));
+        DashboardSnapshot updated = projectSnapshots.get("PROJ", 100);
+
+        verify(issueService, times(2)).getIssues(CLOSED, 100);
+        verify(dashboardService, times(1)).getSnapshot(anyList(), anyList(), anyList());
+        assertThat(original.toData()).isEqualTo(build(before, before, before).toData());
+        assertThat(updated.toData()).isEqualTo(build(after, before, before).toData());
+    }
+
+    private static DashboardSnapshot build(List<Issue> closed, List<Issue> dated, List<Issue> any) {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.addClosed(closed);
+        snapshot.addDated(dated);
+        snapshot.addAny(any);
+        return snapshot;
+    }
+
+    private static Issue issue(String key, String assignee, String priority, int inProgressDays) {
+        LocalDateTime created = LocalDateTime.of(2024, 6, 1, 10, 0);
+        return new Issue(key, created, created.plusDays(inProgressDays + 1), "Closed", "Dana", assignee, priority,
+                List.of(new StatusDuration("In Progress", inProgressDays), new StatusDuration("Closed", 1)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.kzkv.visisis.lab4.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void shouldShareOneCallBetweenConcurrentCallers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("KAFKA", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+            while (singleFlight.statistics().coalesced() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            }
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.statistics().executed()).isEqualTo(1);
+        assertThat(singleFlight.statistics().coalesced()).isEqualTo(callers - 1);
+        assertThat(singleFlight.statistics().inFlight()).isZero();
+    }
+
+    @Test
+    void shouldNotKeepFailedCall() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("KAFKA", () -> {
+            throw new IllegalStateException("Jira is down");
+        }));
+
+        assertThat(singleFlight.execute("KAFKA", () -> 7)).isEqualTo(7);
+        assertThat(singleFlight.statistics().failed()).isEqualTo(1);
+        assertThat(singleFlight.statistics().executed()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
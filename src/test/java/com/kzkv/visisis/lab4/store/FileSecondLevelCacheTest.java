@@ -0,0 +1,73 @@
+package com.kzkv.visisis.lab4.store;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSecondLevelCacheTest {
+
+    private static final IssueQuery QUERY = new IssueQuery("project = \"PROJ\" AND status = Closed", 100);
+
+    @TempDir
+    Path directory;
+
+    private final List<Issue> issues = List.of(new Issue(
+            "PROJ-1", LocalDateTime.of(2024, 6, 1, 10, 0), LocalDateTime.of(2024, 6, 5, 14, 0),
+            "Closed", "Alice", "Bob", "High", List.of(new StatusDuration("Open", 4))));
+
+    @Test
+    void shouldShareEntriesBetweenReplicas() {
+        FileSecondLevelCache writer = new FileSecondLevelCache(true, directory, Duration.ofDays(1));
+        FileSecondLevelCache reader = new FileSecondLevelCache(true, directory, Duration.ofDays(1));
+        Instant fetchedAt = Instant.ofEpochMilli(Instant.now().toEpochMilli());
+
+        writer.put(QUERY, new StoredIssues(issues, fetchedAt, fetchedAt, 1200));
+
+        StoredIssues stored = reader.get(QUERY).orElseThrow();
+        assertThat(stored.issues()).isEqualTo(issues);
+        assertThat(stored.fetchedAt()).isEqualTo(fetchedAt);
+        assertThat(stored.fetchMillis()).isEqualTo(1200);
+        assertThat(reader.get(new IssueQuery(QUERY.jql(), 200))).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreCorruptAndExpiredEntries() throws IOException {
+        FileSecondLevelCache cache = new FileSecondLevelCache(true, directory, Duration.ofHours(1));
+        Instant old = Instant.now().minus(Duration.ofHours(2));
+        cache.put(QUERY, new StoredIssues(issues, old, old, 1200));
+
+        assertThat(cache.get(QUERY)).isEmpty();
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+
+        cache.put(QUERY, new StoredIssues(issues, Instant.now(), Instant.now(), 1200));
+        try (var files = Files.list(directory)) {
+            Path file = files.findFirst().orElseThrow();
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length - 1] ^= 1;
+            Files.write(file, bytes);
+        }
+        assertThat(cache.get(QUERY)).isEmpty();
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        FileSecondLevelCache cache = new FileSecondLevelCache(false, directory, Duration.ofDays(1));
+        cache.put(QUERY, new StoredIssues(issues, Instant.now(), Instant.now(), 1200));
+
+        assertThat(cache.get(QUERY)).isEmpty();
+    }
+}
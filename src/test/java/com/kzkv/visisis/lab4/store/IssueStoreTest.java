@@ -0,0 +1,202 @@
+package com.kzkv.visisis.lab4.store;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.IssueQuery;
+import com.kzkv.visisis.lab4.dto.StatusChange;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssueStoreTest {
+
+    private static final IssueQuery QUERY = new IssueQuery("project = \"PROJ\" AND status = Closed", 100);
+
+    @TempDir
+    Path directory;
+
+    private final List<Issue> issues = List.of(
+            new Issue("PROJ-1", LocalDateTime.of(2024, 6, 1, 10, 0), LocalDateTime.of(2024, 6, 5, 14, 0),
+                    "Closed", "Alice", "Bob", "High",
+                    List.of(new StatusDuration("Open", 2), new StatusDuration("In Progress", 2))),
+            new Issue("PROJ-2", LocalDateTime.of(2024, 6, 2, 9, 0), null,
+                    "Open", "Alice", null, null, List.of())
+    );
+
+    @Test
+    void shouldServeStoredIssuesAfterReopen() throws IOException {
+        IssueStore store = open(DataSize.ofMegabytes(1));
+        store.put(QUERY, stored(issues, 1234));
+        store.close();
+
+        IssueStore reopened = open(DataSize.ofMegabytes(1));
+        StoredIssues stored = reopened.get(QUERY).orElseThrow();
+        reopened.close();
+
+        assertThat(stored.issues()).isEqualTo(issues);
+        assertThat(stored.fetchMillis()).isEqualTo(1234);
+    }
+
+    @Test
+    void shouldIgnoreTornRecordAtTail() throws IOException {
+        IssueStore store = open(DataSize.ofMegabytes(1));
+        store.put(QUERY, stored(issues, 10));
+        store.close();
+        Files.write(directory.resolve("issues.seg"), new byte[]{0x49, 0x53, 0x53, 0x32, 0, 0, 1}, StandardOpenOption.APPEND);
+
+        IssueStore reopened = open(DataSize.ofMegabytes(1));
+        assertThat(reopened.get(QUERY)).map(StoredIssues::issues).contains(issues);
+        reopened.put(QUERY, stored(issues.subList(0, 1), 20));
+        reopened.close();
+
+        IssueStore again = open(DataSize.ofMegabytes(1));
+        assertThat(again.get(QUERY)).map(StoredIssues::issues).contains(issues.subList(0, 1));
+        again.close();
+    }
+
+    @Test
+    void shouldKeepLatestEntriesWhenCompacting() throws IOException {
+        IssueStore store = open(DataSize.ofBytes(512));
+        for (int i = 0; i < 20; i++) {
+            store.put(QUERY, stored(issues, i));
+        }
+        IssueQuery other = new IssueQuery("project = \"OTHER\"", 10);
+        store.put(other, stored(issues.subList(1, 2), 99));
+
+        assertThat(Files.size(directory.resolve("issues.seg"))).isLessThan(1024);
+        assertThat(store.get(QUERY)).map(StoredIssues::fetchMillis).contains(19L);
+        assertThat(store.get(other)).map(StoredIssues::issues).contains(issues.subList(1, 2));
+        store.close();
+    }
+
+    @Test
+    void shouldDropExpiredEntriesWhenCompacting() throws IOException {
+        IssueStore store = open(DataSize.ofBytes(512));
+        IssueQuery old = new IssueQuery("project = \"OLD\"", 10);
+        Instant eightDaysAgo = Instant.now().minus(Duration.ofDays(8));
+        store.put(old, new StoredIssues(issues, eightDaysAgo, eightDaysAgo, 1));
+        for (int i = 0; i < 20; i++) {
+            store.put(QUERY, stored(issues, i));
+        }
+        store.close();
+
+        IssueStore reopened = new IssueStore(true, directory, DataSize.ofMegabytes(1), Duration.ofDays(30));
+        reopened.open();
+        assertThat(reopened.get(old)).isEmpty();
+        assertThat(reopened.get(QUERY)).map(StoredIssues::fetchMillis).contains(19L);
+        reopened.close();
+    }
+
+    @Test
+    void shouldEvictOldestEntriesWithoutRewritingOnEveryPut() throws IOException {
+        IssueStore store = open(DataSize.ofKilobytes(2));
+        Path segment = directory.resolve("issues.seg");
+        Instant start = Instant.now().minus(Duration.ofHours(1));
+
+        int compactions = 0;
+        for (int i = 0; i < 40; i++) {
+            long before = Files.size(segment);
+            store.put(new IssueQuery("project = \"P" + i + "\"", 10), new StoredIssues(issues, start.plusSeconds(i), start, i));
+            if (Files.size(segment) < before) {
+                compactions++;
+            }
+        }
+
+        assertThat(Files.size(segment)).isLessThanOrEqualTo(DataSize.ofKilobytes(2).toBytes());
+        assertThat(compactions).isBetween(1, 10);
+        assertThat(store.get(new IssueQuery("project = \"P39\"", 10))).isPresent();
+        assertThat(store.get(new IssueQuery("project = \"P0\"", 10))).isEmpty();
+        store.close();
+    }
+
+    @Test
+    void shouldRoundTripStatusTimelines() throws IOException {
+        LocalDateTime created = LocalDateTime.of(2024, 6, 1, 10, 0);
+        LocalDateTime resolved = LocalDateTime.of(2024, 6, 3, 18, 30);
+        List<Issue> withTimeline = List.of(new Issue("PROJ-3", created, resolved, "Closed", "Alice", "Bob", "High",
+                StatusTimeline.of(created, resolved, "Closed", List.of(
+                        new StatusChange(created.plusHours(5), "Open", "In Progress"),
+                        new StatusChange(created.plusDays(2), "In Progress", "Closed")))));
+
+        IssueStore store = open(DataSize.ofMegabytes(1));
+        store.put(QUERY, stored(withTimeline, 1));
+        store.close();
+
+        IssueStore reopened = open(DataSize.ofMegabytes(1));
+        List<Issue> restored = reopened.get(QUERY).orElseThrow().issues();
+        reopened.close();
+
+        assertThat(restored).isEqualTo(withTimeline);
+        assertThat(restored.get(0).timeline().secondsIn("In Progress")).isEqualTo(Duration.ofHours(43).toSeconds());
+    }
+
+    @Test
+    void shouldTreatCorruptRecordAsMiss() throws IOException {
+        IssueStore store = open(DataSize.ofMegabytes(1));
+        store.put(QUERY, stored(issues, 1));
+        try (FileChannel segment = FileChannel.open(directory.resolve("issues.seg"), StandardOpenOption.WRITE)) {
+            segment.write(ByteBuffer.wrap(new byte[]{0x7f}), segment.size() - 1);
+        }
+
+        assertThat(store.get(QUERY)).isEmpty();
+        store.close();
+    }
+
+    @Test
+    void shouldReadConsistentEntriesWhileCompacting() throws Exception {
+        IssueStore store = open(DataSize.ofBytes(512));
+        IssueQuery other = new IssueQuery("project = \"OTHER\"", 10);
+        List<Issue> otherIssues = issues.subList(1, 2);
+        store.put(QUERY, stored(issues, 0));
+        store.put(other, stored(otherIssues, 0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i < 300; i++) {
+                    store.put(i % 2 == 0 ? QUERY : other, stored(i % 2 == 0 ? issues : otherIssues, i));
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                while (!writer.isDone()) {
+                    assertThat(store.get(QUERY)).map(StoredIssues::issues).contains(issues);
+                    assertThat(store.get(other)).map(StoredIssues::issues).contains(otherIssues);
+                }
+            });
+            writer.get(30, TimeUnit.SECONDS);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            store.close();
+        }
+    }
+
+    private static StoredIssues stored(List<Issue> issues, long fetchMillis) {
+        Instant now = Instant.now();
+        return new StoredIssues(issues, now, now, fetchMillis);
+    }
+
+    private IssueStore open(DataSize maxSegmentSize) throws IOException {
+        IssueStore store = new IssueStore(true, directory, maxSegmentSize, Duration.ofDays(7));
+        store.open();
+        return store;
+    }
+}
@@ -0,0 +1,68 @@
+package com.kzkv.visisis.lab4.timeline;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusChange;
+import com.kzkv.visisis.lab4.dto.StatusDuration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatusTimelineTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 6, 1, 10, 0);
+    private static final LocalDateTime RESOLVED = LocalDateTime.of(2024, 6, 5, 14, 30);
+
+    private final List<StatusChange> changes = List.of(
+            new StatusChange(LocalDateTime.of(2024, 6, 4, 16, 0), "In Progress", "Resolved"),
+            new StatusChange(LocalDateTime.of(2024, 6, 2, 9, 0), "Open", "In Progress"),
+            new StatusChange(LocalDateTime.of(2024, 6, 4, 18, 0), "Resolved", "Closed")
+    );
+
+    @Test
+    void shouldOrderSegmentsAndKeepSecondPrecision() {
+        StatusTimeline timeline = StatusTimeline.of(CREATED, RESOLVED, "Closed", changes);
+
+        assertThat(timeline.size()).isEqualTo(4);
+        assertThat(timeline.closed()).isTrue();
+        assertThat(timeline.statusName(0)).isEqualTo("Open");
+        assertThat(timeline.statusName(3)).isEqualTo("Closed");
+        assertThat(timeline.exit(0)).isEqualTo(timeline.enter(1));
+        assertThat(timeline.secondsIn("In Progress")).isEqualTo(Duration.ofHours(55).toSeconds());
+        assertThat(timeline.secondsIn("Resolved")).isEqualTo(Duration.ofHours(2).toSeconds());
+        assertThat(timeline.indexOf("Resolved")).isEqualTo(2);
+        assertThat(timeline.indexOf("Unknown")).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldDeriveSameDurationsAsDayTotals() {
+        StatusTimeline timeline = StatusTimeline.of(CREATED, RESOLVED, "Closed", changes);
+
+        assertThat(timeline.toStatusDurations()).containsExactlyInAnyOrder(
+                new StatusDuration("Open", 0),
+                new StatusDuration("In Progress", 2),
+                new StatusDuration("Resolved", 0),
+                new StatusDuration("Closed", 0)
+        );
+        assertThat(Issue.statusDurations(CREATED, RESOLVED, "Closed", changes))
+                .isEqualTo(timeline.toStatusDurations());
+    }
+
+    @Test
+    void shouldKeepTransitionsOfUnresolvedIssuesWithoutDurations() {
+        StatusTimeline timeline = StatusTimeline.of(CREATED, null, "Resolved", changes.subList(0, 2));
+
+        assertThat(timeline.closed()).isFalse();
+        assertThat(timeline.size()).isEqualTo(2);
+        assertThat(timeline.toStatusDurations()).isEmpty();
+    }
+
+    @Test
+    void shouldBeEmptyWithoutChangelog() {
+        assertThat(StatusTimeline.of(CREATED, RESOLVED, "Closed", null)).isSameAs(StatusTimeline.EMPTY);
+        assertThat(StatusTimeline.of(null, RESOLVED, "Closed", changes)).isSameAs(StatusTimeline.EMPTY);
+    }
+}
@@ -0,0 +1,142 @@
+package com.kzkv.visisis.lab4.fixtures;
+
+import com.kzkv.visisis.lab4.dto.Issue;
+import com.kzkv.visisis.lab4.dto.StatusChange;
+import com.kzkv.visisis.lab4.timeline.StatusTimeline;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public final class JiraPayloadGenerator {
+
+	private static final DateTimeFormatter JIRA_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'+0000'");
+	private static final LocalDateTime EPOCH = LocalDateTime.of(2018, 1, 1, 9, 0);
+	private static final String[] WORKFLOW = {"Open", "In Progress", "Patch Available", "Resolved", "Reopened"};
+	private static final String[] PRIORITIES = {"Blocker", "Critical", "Major", "Minor", "Trivial"};
+
+	private final String projectKey;
+	private final long seed;
+	private final int users;
+
+	public JiraPayloadGenerator(String projectKey, long seed, int users) {
+		this.projectKey = projectKey;
+		this.seed = seed;
+		this.users = users;
+	}
+
+	public JiraPayloadGenerator() {
+		this("KAFKA", 42, 500);
+	}
+
+	public List<Issue> issues(int count, int changelogDepth) {
+		List<Issue> issues = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			issues.add(spec(i, changelogDepth).toIssue());
+		}
+		return issues;
+	}
+
+	public byte[] searchResponse(int startAt, int count, int total, int changelogDepth) {
+		List<IssueSpec> page = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			page.add(spec(startAt + i, changelogDepth));
+		}
+		return searchResponse(page, startAt, total);
+	}
+
+	public static byte[] searchResponse(List<IssueSpec> page, int startAt, int total) {
+		int depth = page.isEmpty() ? 0 : page.get(0).changes().size();
+		StringBuilder json = new StringBuilder(page.size() * (600 + depth * 400));
+		json.append("{\"expand\":\"schema,names\",\"startAt\":").append(startAt)
+				.append(",\"maxResults\":").append(page.size())
+				.append(",\"total\":").append(total)
+				.append(",\"issues\":[");
+		for (int i = 0; i < page.size(); i++) {
+			if (i > 0) json.append(',');
+			page.get(i).appendJson(json);
+		}
+		json.append("]}");
+		return json.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	public IssueSpec spec(int index, int changelogDepth) {
+		SplittableRandom random = new SplittableRandom(seed * 1_000_003L + index);
+		LocalDateTime created = EPOCH.plusMinutes(random.nextLong(6L * 365 * 24 * 60));
+		boolean resolved = random.nextInt(10) < 8;
+
+		List<StatusChange> changes = new ArrayList<>(changelogDepth);
+		LocalDateTime at = created;
+		String status = WORKFLOW[0];
+		for (int h = 0; h < changelogDepth; h++) {
+			at = at.plusMinutes(1 + random.nextLong(7L * 24 * 60));
+			String next = h == changelogDepth - 1 && resolved ? "Closed" : WORKFLOW[1 + random.nextInt(WORKFLOW.length - 1)];
+			if (next.equals(status)) next = WORKFLOW[0];
+			changes.add(new StatusChange(at, status, next));
+			status = next;
+		}
+		LocalDateTime resolution = resolved ? at.plusMinutes(random.nextLong(3L * 24 * 60)) : null;
+		if (resolved) status = "Closed";
+
+		return new IssueSpec(
+				projectKey + "-" + (index + 1),
+				created,
+				resolution,
+				status,
+				"User " + random.nextInt(users),
+				random.nextInt(10) == 0 ? null : "User " + random.nextInt(users),
+				PRIORITIES[random.nextInt(PRIORITIES.length)],
+				changes
+		);
+	}
+
+	public record IssueSpec(String key, LocalDateTime created, LocalDateTime resolved, String status,
+							String reporter, String assignee, String priority, List<StatusChange> changes) {
+
+		public Issue toIssue() {
+			return new Issue(key, created, resolved, status, reporter, assignee, priority,
+					StatusTimeline.of(created, resolved, status, changes));
+		}
+
+		private void appendJson(StringBuilder json) {
+			json.append("{\"expand\":\"operations,editmeta,changelog\",\"id\":\"").append(key.hashCode() & 0x7fffffff)
+					.append("\",\"self\":\"https://issues.example.org/rest/api/2/issue/").append(key)
+					.append("\",\"key\":\"").append(key).append("\",\"fields\":{")
+					.append("\"created\":\"").append(JIRA_FORMAT.format(created)).append("\",")
+					.append("\"resolutiondate\":").append(resolved == null ? "null" : "\"" + JIRA_FORMAT.format(resolved) + "\"").append(',')
+					.append("\"status\":{\"self\":\"https://issues.example.org/rest/api/2/status/1\",\"name\":\"").append(status)
+					.append("\",\"id\":\"1\",\"statusCategory\":{\"id\":3,\"key\":\"done\",\"name\":\"Done\"}},");
+			appendUser(json, "reporter", reporter).append(',');
+			appendUser(json, "assignee", assignee).append(',');
+			json.append("\"priority\":{\"self\":\"https://issues.example.org/rest/api/2/priority/3\",\"name\":\"")
+					.append(priority).append("\",\"id\":\"3\"}},")
+					.append("\"changelog\":{\"startAt\":0,\"maxResults\":").append(changes.size())
+					.append(",\"total\":").append(changes.size()).append(",\"histories\":[");
+			for (int h = 0; h < changes.size(); h++) {
+				StatusChange change = changes.get(h);
+				if (h > 0) json.append(',');
+				json.append("{\"id\":\"").append(h).append("\",");
+				appendUser(json, "author", reporter).append(',')
+						.append("\"created\":\"").append(JIRA_FORMAT.format(change.at())).append("\",\"items\":[")
+						.append("{\"field\":\"Comment\",\"fieldtype\":\"jira\",\"from\":null,\"fromString\":null,\"to\":null,\"toString\":\"comment\"},")
+						.append("{\"field\":\"status\",\"fieldtype\":\"jira\",\"from\":\"1\",\"fromString\":\"").append(change.from())
+						.append("\",\"to\":\"3\",\"toString\":\"").append(change.to()).append("\"}]}");
+			}
+			json.append("]}}");
+		}
+
+		private static StringBuilder appendUser(StringBuilder json, String field, String name) {
+			json.append('"').append(field).append("\":");
+			if (name == null) {
+				return json.append("null");
+			}
+			return json.append("{\"self\":\"https://issues.example.org/rest/api/2/user?username=").append(name.replace(' ', '_'))
+					.append("\",\"name\":\"").append(name.replace(' ', '_'))
+					.append("\",\"displayName\":\"").append(name)
+					.append("\",\"active\":true,\"timeZone\":\"Etc/UTC\"}");
+		}
+	}
+}